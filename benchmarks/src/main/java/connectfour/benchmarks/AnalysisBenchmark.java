@@ -0,0 +1,69 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Analysis;
+import connectfour.Board;
+import connectfour.MinimaxAI;
+ 
+/**
+* Command-line tool that compares MinimaxAI.analyze with scoring each column separately.
+* For every position of the mixed set it analyzes all columns to the given depth in one
+* call, then searches each column's resulting position with its own fresh MinimaxAI (the
+* opponent to move, one ply less), and prints the node counts of both. The scores are
+* compared too (forced wins and losses only by their result, as the analysis reports them
+* independently of the depth); they may differ where the shared table let the analysis
+* reuse a deeper result, which is counted but not an error.
+*
+* Usage: java AnalysisBenchmark [depth]
+*/
+public class AnalysisBenchmark {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+ 
+        System.out.printf("depth=%d%n", depth);
+        System.out.println("position               analysis     separate   reduction  same scores  best");
+        long analysisTotal = 0;
+        long separateTotal = 0;
+        for (String moves : BenchmarkPositions.POSITIONS) {
+            Board board = BenchmarkPositions.boardFromMoves(moves);
+            MinimaxAI analyzer = createEngine(depth, Board.PLAYER_2);
+            Analysis analysis = analyzer.analyze(board, depth, null, null);
+ 
+            long separateNodes = 0;
+            int columns = 0;
+            int sameScores = 0;
+            for (Analysis.ColumnScore column : analysis.getColumnScores()) {
+                columns++;
+                Board child = new Board(board);
+                child.makeMove(column.getColumn(), Board.PLAYER_2);
+                if (child.checkWin(Board.PLAYER_2) || child.isDraw()) {
+                    sameScores++; // Nothing left to search
+                    continue;
+                }
+                MinimaxAI opponent = createEngine(depth - 1, Board.PLAYER_1);
+                opponent.findBestMove(child);
+                separateNodes += opponent.getLastSearchStats().getNodes();
+                int separateScore = -opponent.getLastSearchStats().getScore();
+                boolean decided = column.isWin() || column.isLoss();
+                if (decided ? Integer.signum(separateScore) == Integer.signum(column.getScore())
+                        && Math.abs(separateScore) > Math.abs(column.getScore()) / 2
+                        : separateScore == column.getScore()) {
+                    sameScores++;
+                }
+            }
+            analysisTotal += analysis.getNodes();
+            separateTotal += separateNodes;
+            System.out.printf("%-20s %12d %12d %10.1f%%  %7d/%d  %d%n", moves, analysis.getNodes(), separateNodes,
+                    100.0 * (separateNodes - analysis.getNodes()) / separateNodes, sameScores, columns,
+                    analysis.getBestColumn());
+        }
+        System.out.printf("%-20s %12d %12d %10.1f%%%n", "total", analysisTotal, separateTotal,
+                100.0 * (separateTotal - analysisTotal) / separateTotal);
+    }
+ 
+    private static MinimaxAI createEngine(int depth, int player) {
+        MinimaxAI ai = new MinimaxAI(depth);
+        ai.setPlayer(player);
+        ai.setEndgameThreshold(0); // Compare searches, not the solver
+        return ai;
+    }
+}
@@ -0,0 +1,97 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+ 
+/**
+* Fixed position sets shared by the benchmarks.
+* Positions are given as the columns played so far, Player 1 moving first; all have an
+* odd number of moves so it is the AI's (Player 2's) turn, and none is already decided.
+*/
+public final class BenchmarkPositions {
+    // Curated by game phase for the JMH benchmarks (selected with @Param("opening") etc.)
+    public static final String[] OPENING = {
+        "3",
+        "232",
+        "26341",
+        "4124612",
+    };
+ 
+    public static final String[] MIDDLEGAME = {
+        "6610230536222",
+        "151642664322545",
+        "12235515220163621",
+        "1443531054453004233",
+    };
+ 
+    public static final String[] ENDGAME = {
+        "2263432330205403025444306",
+        "222206316113234513411446044",
+        "12553100066031425265411534144",
+        "6314552002151602514560241244341",
+    };
+ 
+    // Mixed set used by the command-line tools
+    public static final String[] POSITIONS = {
+        "3",
+        "434",
+        "51456",
+        "2124224",
+        "233145250",
+        "62104214422",
+        "5125420242544",
+        "342021464533364",
+        "42224342301630333",
+        "2552054305514532640",
+    };
+ 
+    private BenchmarkPositions() {
+    }
+ 
+    /**
+     * @param phase "opening", "middlegame" or "endgame".
+     * @return The boards of that phase's position set.
+     */
+    public static Board[] boardsForPhase(String phase) {
+        String[] moves;
+        switch (phase) {
+            case "opening":
+                moves = OPENING;
+                break;
+            case "middlegame":
+                moves = MIDDLEGAME;
+                break;
+            case "endgame":
+                moves = ENDGAME;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown phase: " + phase);
+        }
+        Board[] boards = new Board[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            boards[i] = boardFromMoves(moves[i]);
+        }
+        return boards;
+    }
+ 
+    /**
+     * Replays a move string on an empty board.
+     * @param moves Column digits in playing order, e.g. "3342".
+     * @return The resulting board.
+     */
+    public static Board boardFromMoves(String moves) {
+        return boardFromMoves(moves, new Board());
+    }
+ 
+    /**
+     * Replays a move string on the given empty board, e.g. a variant size. Columns 0-6
+     * exist on every variant at least that wide, so the standard sets can be reused.
+     */
+    public static Board boardFromMoves(String moves, Board board) {
+        int player = Board.PLAYER_1;
+        for (char c : moves.toCharArray()) {
+            board.makeMove(c - '0', player);
+            player = (player == Board.PLAYER_1) ? Board.PLAYER_2 : Board.PLAYER_1;
+        }
+        return board;
+    }
+}
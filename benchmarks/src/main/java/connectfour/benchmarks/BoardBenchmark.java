@@ -0,0 +1,128 @@
+package connectfour.benchmarks;
+ 
+import connectfour.BitBoard;
+import connectfour.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+ 
+import java.util.concurrent.TimeUnit;
+ 
+/**
+* JMH benchmarks for the board primitives the search calls at every node, on both the
+* grid Board and the BitBoard used by the search. Each invocation runs the operation
+* once per position in the phase set; scores are reported per position.
+*/
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private static final int POSITIONS_PER_PHASE = 4;
+ 
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+ 
+    private Board[] boards;
+    private BitBoard[] bitBoards;
+    private final int[] moveBuffer = new int[Board.COLS];
+    private int nextCol;
+ 
+    @Setup
+    public void setUp() {
+        boards = BenchmarkPositions.boardsForPhase(phase);
+        bitBoards = new BitBoard[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            bitBoards[i] = new BitBoard(boards[i]);
+        }
+    }
+ 
+    // Cycles through the columns so the branch predictor cannot learn a single one
+    private int nextValidColumn(BitBoard board) {
+        int mask = board.getValidMovesMask();
+        do {
+            nextCol = (nextCol + 1) % Board.COLS;
+        } while ((mask & (1 << nextCol)) == 0);
+        return nextCol;
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void bitBoardMakeUndo(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            int col = nextValidColumn(board);
+            bh.consume(board.makeMove(col, Board.PLAYER_2));
+            board.undoMove(col);
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void boardCopyAndMakeMove(Blackhole bh) {
+        // Board has no undo, so a copy per move is how it was searched before BitBoard
+        for (int i = 0; i < boards.length; i++) {
+            Board copy = new Board(boards[i]);
+            bh.consume(copy.makeMove(nextValidColumn(bitBoards[i]), Board.PLAYER_2));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void boardCopy(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(new Board(board));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void bitBoardCopy(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            bh.consume(new BitBoard(board));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void boardCheckWin(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(board.checkWin(Board.PLAYER_1));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void bitBoardCheckWin(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            bh.consume(board.checkWin(Board.PLAYER_1));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void boardGetValidMoves(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(board.getValidMoves());
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void bitBoardGenerateMoves(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            bh.consume(board.generateMoves(moveBuffer));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package connectfour.benchmarks;
+ 
+import connectfour.BitBoard;
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+ 
+import java.util.concurrent.TimeUnit;
+ 
+/**
+* JMH benchmarks for MinimaxAI.evaluate. Throughput is evaluations per second.
+* The evaluation reads window counts that BitBoard maintains on make/undo, so
+* evaluateAfterMove includes that incremental cost as the search would see it.
+*/
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    private static final int POSITIONS_PER_PHASE = 4;
+ 
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+ 
+    private final MinimaxAI ai = new MinimaxAI(1, 1);
+    private BitBoard[] bitBoards;
+ 
+    @Setup
+    public void setUp() {
+        Board[] boards = BenchmarkPositions.boardsForPhase(phase);
+        bitBoards = new BitBoard[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            bitBoards[i] = new BitBoard(boards[i]);
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void evaluate(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            bh.consume(ai.evaluate(board));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS_PER_PHASE)
+    public void evaluateAfterMove(Blackhole bh) {
+        for (BitBoard board : bitBoards) {
+            int col = Integer.numberOfTrailingZeros(board.getValidMovesMask());
+            board.makeMove(col, Board.PLAYER_2);
+            bh.consume(ai.evaluate(board));
+            board.undoMove(col);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package connectfour.benchmarks;
+ 
+import connectfour.BitBoard;
+import connectfour.Board;
+import connectfour.GameLogReader;
+import connectfour.GameLogWriter;
+import connectfour.RecordedGame;
+ 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+ 
+/**
+* Command-line tool that measures the game log: appends random games (random legal moves,
+* random thinking times) to a log, then streams the log back and replays every game
+* through a Board, checking that moves and results survive the round trip. Prints bytes per
+* game, both rates and the heap in use after reading, which must not grow with the log.
+* The log is deleted afterwards unless a file is given; GameLogAnalyzer can then analyze it.
+*
+* Usage: java GameLogBenchmark [games] [file]
+*/
+public class GameLogBenchmark {
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = args.length > 1 ? Paths.get(args[1]) : Files.createTempFile("games", ".log");
+        Files.deleteIfExists(file); // Start from an empty log
+ 
+        try {
+            long start = System.nanoTime();
+            long checksum = 0;
+            try (GameLogWriter writer = GameLogWriter.open(file)) {
+                Random random = new Random(1);
+                for (int i = 0; i < games; i++) {
+                    RecordedGame game = randomGame(random);
+                    checksum += checksum(game);
+                    writer.append(game);
+                }
+            }
+            double writeSeconds = (System.nanoTime() - start) / 1e9;
+            long bytes = Files.size(file);
+            System.out.printf("wrote %d games, %d bytes (%.1f bytes/game), %.0f games/s%n", games, bytes,
+                    (double) bytes / games, games / writeSeconds);
+ 
+            start = System.nanoTime();
+            long read = 0;
+            long plies = 0;
+            try (GameLogReader reader = GameLogReader.open(file)) {
+                for (RecordedGame game = reader.next(); game != null; game = reader.next()) {
+                    Board board = game.replay(game.getPlies());
+                    int last = game.getPlies() % 2 == 1 ? Board.PLAYER_1 : Board.PLAYER_2;
+                    int result = board.checkWin(last) ? last : board.isDraw() ? RecordedGame.DRAW : RecordedGame.UNFINISHED;
+                    if (result != game.getResult()) {
+                        throw new IllegalStateException("Game " + read + ": result " + game.getResult()
+                                + ", replayed " + result);
+                    }
+                    checksum -= checksum(game);
+                    read++;
+                    plies += game.getPlies();
+                }
+            }
+            double readSeconds = (System.nanoTime() - start) / 1e9;
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("replayed %d games, %d plies, %.0f games/s, heap in use %d MB%n", read, plies,
+                    read / readSeconds, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+            if (read != games || checksum != 0) {
+                System.out.println("ERROR: games differ after the round trip");
+                System.exit(1);
+            }
+        } finally {
+            if (args.length < 2) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+ 
+    // A game of random legal moves up to a win or a full board
+    private static RecordedGame randomGame(Random random) {
+        BitBoard board = new BitBoard();
+        byte[] moves = new byte[Board.ROWS * Board.COLS];
+        int[] millis = new int[moves.length];
+        int plies = 0;
+        int result = RecordedGame.DRAW;
+        while (plies < moves.length) {
+            int player = plies % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+            int col;
+            do {
+                col = random.nextInt(Board.COLS);
+            } while (!board.isColumnValid(col));
+            board.makeMove(col, player);
+            moves[plies] = (byte) col;
+            millis[plies] = random.nextInt(player == Board.PLAYER_1 ? 20_000 : 500);
+            plies++;
+            if (board.checkWin(player)) {
+                result = player == Board.PLAYER_1 ? RecordedGame.PLAYER_1_WON : RecordedGame.PLAYER_2_WON;
+                break;
+            }
+        }
+        return new RecordedGame(Board.ROWS, Board.COLS, Board.CONNECT, result, System.currentTimeMillis(),
+                Arrays.copyOf(moves, plies), Arrays.copyOf(millis, plies));
+    }
+ 
+    private static long checksum(RecordedGame game) {
+        long sum = game.getResult() + 31L * game.getStartMillis();
+        for (int ply = 0; ply < game.getPlies(); ply++) {
+            sum = sum * 31 + game.getMove(ply) * 65_537L + game.getMoveMillis(ply);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,143 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.GameServer;
+ 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+ 
+/**
+* Command-line load test for GameServer.
+* Starts a server in-process (or targets a running one) and plays the given number of
+* games at once, each with a random human that moves as soon as it is its turn. Clients
+* are asynchronous, so thousands of sessions need no thread each. Prints the games and
+* AI moves per second and the latency from a human move to the AI's reply.
+*
+* Usage: java GameServerLoadTest [sessions] [depth] [baseUrl]
+*/
+public class GameServerLoadTest {
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":\"?([^,\"}]*)");
+    private static final long POLL_MILLIS = 5;
+ 
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final int depth;
+    private final Executor pollDelay = CompletableFuture.delayedExecutor(POLL_MILLIS, TimeUnit.MILLISECONDS);
+    private final ConcurrentLinkedQueue<Long> replyNanos = new ConcurrentLinkedQueue<>();
+ 
+    private GameServerLoadTest(String baseUrl, int depth) {
+        this.baseUrl = baseUrl;
+        this.depth = depth;
+    }
+ 
+    public static void main(String[] args) throws IOException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        GameServer server = null;
+        String baseUrl;
+        if (args.length > 2) {
+            baseUrl = args[2];
+        } else {
+            server = new GameServer(0, Runtime.getRuntime().availableProcessors(), depth, Duration.ofSeconds(1));
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+ 
+        GameServerLoadTest test = new GameServerLoadTest(baseUrl, depth);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] games = new CompletableFuture<?>[sessions];
+        for (int i = 0; i < sessions; i++) {
+            games[i] = test.playGame();
+        }
+        CompletableFuture.allOf(games).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+ 
+        long[] latencies = test.replyNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("sessions=%d depth=%d time=%.1f s games/s=%.1f ai-moves/s=%.0f%n",
+                sessions, depth, seconds, sessions / seconds, latencies.length / seconds);
+        System.out.printf("reply latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+        if (server != null) {
+            server.stop();
+        }
+    }
+ 
+    private CompletableFuture<Void> playGame() {
+        return send("POST", "/sessions?depth=" + depth).thenCompose(state -> {
+            String id = field(state, "id");
+            return humanTurn(id, state).thenCompose(done -> send("DELETE", "/sessions/" + id)).thenApply(s -> null);
+        });
+    }
+ 
+    // Plays a random legal column, waits for the AI's reply, and repeats until the game ends
+    private CompletableFuture<String> humanTurn(String id, String state) {
+        if (!Boolean.parseBoolean(field(state, "active"))) {
+            return CompletableFuture.completedFuture(state);
+        }
+        long moveNanos = System.nanoTime();
+        return send("POST", "/sessions/" + id + "/move?col=" + randomColumn(field(state, "board")))
+                .thenCompose(next -> awaitReply(id, next))
+                .thenCompose(next -> {
+                    replyNanos.add(System.nanoTime() - moveNanos);
+                    return humanTurn(id, next);
+                });
+    }
+ 
+    private CompletableFuture<String> awaitReply(String id, String state) {
+        if (field(state, "turn").equals("1") || !Boolean.parseBoolean(field(state, "active"))) {
+            return CompletableFuture.completedFuture(state);
+        }
+        return CompletableFuture.supplyAsync(() -> id, pollDelay)
+                .thenCompose(ignored -> send("GET", "/sessions/" + id))
+                .thenCompose(next -> awaitReply(id, next));
+    }
+ 
+    private CompletableFuture<String> send(String method, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(HttpResponse::body);
+    }
+ 
+    // The board's first row is the top one, so a column is open while its top cell is empty
+    private static int randomColumn(String board) {
+        int[] open = new int[Board.COLS];
+        int count = 0;
+        for (int c = 0; c < Board.COLS; c++) {
+            if (board.charAt(c) == '.') {
+                open[count++] = c;
+            }
+        }
+        return open[ThreadLocalRandom.current().nextInt(count)];
+    }
+ 
+    private static String field(String json, String name) {
+        Matcher m = FIELD.matcher(json);
+        while (m.find()) {
+            if (m.group(1).equals(name)) {
+                return m.group(2);
+            }
+        }
+        throw new IllegalStateException("No " + name + " in " + json);
+    }
+ 
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+}
@@ -0,0 +1,42 @@
+package connectfour.benchmarks;
+ 
+import connectfour.HeuristicMoveOrderer;
+import connectfour.LeftToRightMoveOrderer;
+import connectfour.MinimaxAI;
+import connectfour.MoveOrderer;
+ 
+import java.util.function.Supplier;
+ 
+/**
+* Command-line tool that shows how much move ordering shrinks the search tree.
+* For each depth it searches the BenchmarkPositions set once with plain left-to-right
+* ordering and once with the default HeuristicMoveOrderer, starting every position
+* from a cold table, and prints the total node counts.
+*
+* Usage: java MoveOrderingBenchmark [maxDepth]
+*/
+public class MoveOrderingBenchmark {
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+ 
+        System.out.println("depth  left-to-right     heuristic   reduction");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long unordered = countNodes(depth, LeftToRightMoveOrderer::new);
+            long ordered = countNodes(depth, HeuristicMoveOrderer::new);
+            System.out.printf("%5d %14d %13d %10.1f%%%n", depth, unordered, ordered,
+                    100.0 * (unordered - ordered) / unordered);
+        }
+    }
+ 
+    private static long countNodes(int depth, Supplier<MoveOrderer> ordering) {
+        MinimaxAI ai = new MinimaxAI(depth);
+        long total = 0;
+        for (String moves : BenchmarkPositions.POSITIONS) {
+            ai.clearTranspositionTable();
+            ai.setMoveOrdering(ordering); // Fresh killers and history per position
+            ai.findBestMove(BenchmarkPositions.boardFromMoves(moves));
+            total += ai.getLastSearchStats().getNodes();
+        }
+        return total;
+    }
+}
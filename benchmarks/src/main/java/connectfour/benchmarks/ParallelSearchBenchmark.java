@@ -0,0 +1,52 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import connectfour.Move;
+ 
+/**
+* Command-line tool that measures the Lazy SMP speedup of MinimaxAI.
+* Searches the BenchmarkPositions set at a fixed depth with 1..N threads and prints
+* the wall-clock time, speedup over one thread, and how many chosen moves match
+* the sequential search. A different move is not necessarily a worse one: helper
+* threads leave deeper table entries behind, and equally scored moves can then
+* resolve differently.
+*
+* Usage: java ParallelSearchBenchmark [depth] [maxThreads]
+*/
+public class ParallelSearchBenchmark {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+ 
+        int[] sequentialMoves = new int[BenchmarkPositions.POSITIONS.length];
+        long sequentialNanos = 0;
+        System.out.printf("depth=%d positions=%d%n", depth, BenchmarkPositions.POSITIONS.length);
+        System.out.println("threads   time(ms)   speedup   same-move");
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            MinimaxAI ai = new MinimaxAI(depth, 64);
+            ai.setThreadCount(threads);
+            long totalNanos = 0;
+            int sameMoves = 0;
+            for (int i = 0; i < BenchmarkPositions.POSITIONS.length; i++) {
+                ai.clearTranspositionTable(); // Every position starts cold, like a fresh game
+                Board board = BenchmarkPositions.boardFromMoves(BenchmarkPositions.POSITIONS[i]);
+                long start = System.nanoTime();
+                Move move = ai.findBestMove(board);
+                totalNanos += System.nanoTime() - start;
+                if (threads == 1) {
+                    sequentialMoves[i] = move.getColumn();
+                    sameMoves++;
+                } else if (move.getColumn() == sequentialMoves[i]) {
+                    sameMoves++;
+                }
+            }
+            ai.shutdown();
+            if (threads == 1) {
+                sequentialNanos = totalNanos;
+            }
+            System.out.printf("%7d %10.1f %9.2f %7d/%d%n", threads, totalNanos / 1e6,
+                    (double) sequentialNanos / totalNanos, sameMoves, BenchmarkPositions.POSITIONS.length);
+        }
+    }
+}
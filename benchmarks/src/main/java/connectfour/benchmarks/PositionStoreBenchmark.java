@@ -0,0 +1,109 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import connectfour.PositionStore;
+import connectfour.SearchStats;
+ 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+ 
+/**
+* Command-line tool that shows what a PositionStore saves a restarted engine.
+* Searches the mixed position set with a fresh store, closes it, reopens the file as a
+* new process would and searches the same positions again with a new MinimaxAI warmed
+* from it, once to the same depth (answered from the store at the root) and once a ply
+* deeper (reusing stored results below the root), the latter compared with a search without
+* the store. Prints the node counts; warmed searches must find the same scores and moves
+* (or their mirror columns) as unwarmed ones, otherwise an error is reported.
+*
+* Usage: java PositionStoreBenchmark [depth] [minStoredDepth]
+*/
+public class PositionStoreBenchmark {
+    private static final int STORE_ENTRIES = 1 << 18;
+ 
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int minDepth = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        Path file = Files.createTempFile("position-store", ".bin");
+        Files.delete(file); // The store creates it
+ 
+        try {
+            SearchStats[] cold = new SearchStats[BenchmarkPositions.POSITIONS.length];
+            try (PositionStore store = PositionStore.open(file, STORE_ENTRIES, minDepth)) {
+                // All attached while the store is still empty, so no cold search profits from another
+                MinimaxAI[] engines = new MinimaxAI[cold.length];
+                for (int i = 0; i < cold.length; i++) {
+                    engines[i] = createEngine(depth, store);
+                }
+                for (int i = 0; i < cold.length; i++) {
+                    cold[i] = search(engines[i], BenchmarkPositions.POSITIONS[i]);
+                }
+            }
+ 
+            System.out.printf("depth=%d minStoredDepth=%d fileBytes=%d%n", depth, minDepth, Files.size(file));
+            long coldTotal = 0;
+            long warmTotal = 0;
+            long deeperColdTotal = 0;
+            long deeperWarmTotal = 0;
+            int errors = 0;
+            try (PositionStore store = PositionStore.open(file, STORE_ENTRIES, minDepth)) {
+                System.out.printf("reloaded %d positions from %d records%n", store.size(), store.getRecordCount());
+                System.out.printf("position                  cold         warm   reduction  |  cold d%-2d     warm d%-2d"
+                        + "  reduction%n", depth + 1, depth + 1);
+                for (int i = 0; i < cold.length; i++) {
+                    String moves = BenchmarkPositions.POSITIONS[i];
+                    SearchStats warm = search(createEngine(depth, store), moves);
+                    SearchStats deeperCold = search(createEngine(depth + 1, null), moves);
+                    SearchStats deeperWarm = search(createEngine(depth + 1, store), moves);
+                    coldTotal += cold[i].getNodes();
+                    warmTotal += warm.getNodes();
+                    deeperColdTotal += deeperCold.getNodes();
+                    deeperWarmTotal += deeperWarm.getNodes();
+                    boolean consistent = sameResult(cold[i], warm) && sameResult(deeperCold, deeperWarm);
+                    if (!consistent) {
+                        errors++;
+                    }
+                    System.out.printf("%-20s %12d %12d %10.1f%%  | %12d %12d %10.1f%%%s%n", moves,
+                            cold[i].getNodes(), warm.getNodes(), reduction(cold[i].getNodes(), warm.getNodes()),
+                            deeperCold.getNodes(), deeperWarm.getNodes(),
+                            reduction(deeperCold.getNodes(), deeperWarm.getNodes()),
+                            consistent ? "" : "  ERROR: results differ");
+                }
+            }
+            System.out.printf("%-20s %12d %12d %10.1f%%  | %12d %12d %10.1f%%%n", "total", coldTotal, warmTotal,
+                    reduction(coldTotal, warmTotal), deeperColdTotal, deeperWarmTotal,
+                    reduction(deeperColdTotal, deeperWarmTotal));
+            if (errors > 0) {
+                System.exit(1);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+ 
+    // A new engine per position, like a fresh process; only the store, if any, carries results over
+    private static MinimaxAI createEngine(int depth, PositionStore store) {
+        MinimaxAI ai = new MinimaxAI(depth);
+        ai.setEndgameThreshold(0); // Measure the search, not the solver
+        ai.setPositionStore(store);
+        return ai;
+    }
+ 
+    private static boolean sameResult(SearchStats a, SearchStats b) {
+        return a.getScore() == b.getScore()
+                && (a.getBestMove() == b.getBestMove() || a.getBestMove() == Board.COLS - 1 - b.getBestMove());
+    }
+ 
+    private static double reduction(long before, long after) {
+        return 100.0 * (before - after) / before;
+    }
+ 
+    private static SearchStats search(MinimaxAI ai, String moves) {
+        if (ai.findBestMove(BenchmarkPositions.boardFromMoves(moves)) == null) {
+            throw new IllegalStateException("No move found");
+        }
+        return ai.getLastSearchStats();
+    }
+}
@@ -0,0 +1,61 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import connectfour.Move;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+ 
+import java.util.concurrent.TimeUnit;
+ 
+/**
+* JMH benchmark for a complete MinimaxAI.findBestMove call at fixed depths.
+* Every invocation searches the next position of the phase set from a cold transposition
+* table, so results do not depend on what earlier invocations left behind.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+ 
+    @Param({"4", "6", "8", "10"})
+    public int depth;
+ 
+    private MinimaxAI ai;
+    private Board[] boards;
+    private Board board;
+    private int next;
+ 
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        ai = new MinimaxAI(depth, 4);
+        boards = BenchmarkPositions.boardsForPhase(phase);
+    }
+ 
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        ai.clearTranspositionTable();
+        board = boards[next];
+        next = (next + 1) % boards.length;
+    }
+ 
+    @Benchmark
+    public Move findBestMove() {
+        return ai.findBestMove(board);
+    }
+}
@@ -0,0 +1,74 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import connectfour.Move;
+ 
+/**
+* Command-line tool that shows how much left-right symmetry shrinks the search tree.
+* Searches early positions, most of them their own mirror image, with symmetry off and
+* on, each from a cold table, and prints the node counts. The score must not change and
+* the move may only change to its mirror column; a mismatch is reported as an error.
+*
+* Usage: java SymmetryBenchmark [depth]
+*/
+public class SymmetryBenchmark {
+    // Move strings as in BenchmarkPositions; the side to move depends on the length
+    private static final String[] POSITIONS = {
+        "",
+        "3",
+        "33",
+        "333",
+        "3333",
+        "31254",
+        "232",
+        "26341",
+    };
+ 
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+ 
+        System.out.printf("depth=%d%n", depth);
+        System.out.println("position         plain     symmetry   reduction  move");
+        long plainTotal = 0;
+        long symmetryTotal = 0;
+        int errors = 0;
+        for (String moves : POSITIONS) {
+            Board board = BenchmarkPositions.boardFromMoves(moves);
+            int player = moves.length() % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+            MinimaxAI plain = search(board, player, depth, false);
+            MinimaxAI symmetric = search(board, player, depth, true);
+            long plainNodes = plain.getLastSearchStats().getNodes();
+            long symmetryNodes = symmetric.getLastSearchStats().getNodes();
+            plainTotal += plainNodes;
+            symmetryTotal += symmetryNodes;
+ 
+            int plainMove = plain.getLastSearchStats().getBestMove();
+            int symmetryMove = symmetric.getLastSearchStats().getBestMove();
+            boolean consistent = plain.getLastSearchStats().getScore() == symmetric.getLastSearchStats().getScore()
+                    && (plainMove == symmetryMove || plainMove == Board.COLS - 1 - symmetryMove);
+            if (!consistent) {
+                errors++;
+            }
+            System.out.printf("%-10s %12d %12d %10.1f%%  %d/%d%s%n", moves.isEmpty() ? "(empty)" : moves,
+                    plainNodes, symmetryNodes, 100.0 * (plainNodes - symmetryNodes) / plainNodes,
+                    plainMove, symmetryMove, consistent ? "" : "  ERROR: results differ");
+        }
+        System.out.printf("%-10s %12d %12d %10.1f%%%n", "total", plainTotal, symmetryTotal,
+                100.0 * (plainTotal - symmetryTotal) / plainTotal);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+ 
+    private static MinimaxAI search(Board board, int player, int depth, boolean symmetry) {
+        MinimaxAI ai = new MinimaxAI(depth);
+        ai.setPlayer(player);
+        ai.setSymmetryPruning(symmetry);
+        Move move = ai.findBestMove(board);
+        if (move == null) {
+            throw new IllegalStateException("No move found");
+        }
+        return ai;
+    }
+}
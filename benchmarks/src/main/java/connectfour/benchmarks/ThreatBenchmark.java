@@ -0,0 +1,61 @@
+package connectfour.benchmarks;
+ 
+import connectfour.Board;
+import connectfour.MinimaxAI;
+ 
+/**
+* Command-line tool that shows how much the search saves by looking at immediate threats
+* (winning at once, losing to a double threat, blocking a single threat). Searches the
+* mixed and middlegame position sets with threat pruning off and on, each from a cold
+* table, and prints node counts and times. The score must not change; a mismatch is
+* reported as an error.
+*
+* Usage: java ThreatBenchmark [depth]
+*/
+public class ThreatBenchmark {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+ 
+        System.out.printf("depth=%d%n", depth);
+        System.out.println("position                  plain      threats   reduction    plain ms  threats ms");
+        long plainTotal = 0;
+        long threatTotal = 0;
+        int errors = 0;
+        String[][] sets = { BenchmarkPositions.POSITIONS, BenchmarkPositions.MIDDLEGAME };
+        for (String[] set : sets) {
+            for (String moves : set) {
+                Board board = BenchmarkPositions.boardFromMoves(moves);
+                MinimaxAI plain = search(board, depth, false);
+                MinimaxAI threats = search(board, depth, true);
+                long plainNodes = plain.getLastSearchStats().getNodes();
+                long threatNodes = threats.getLastSearchStats().getNodes();
+                plainTotal += plainNodes;
+                threatTotal += threatNodes;
+                boolean consistent = plain.getLastSearchStats().getScore() == threats.getLastSearchStats().getScore();
+                if (!consistent) {
+                    errors++;
+                }
+                System.out.printf("%-20s %12d %12d %10.1f%%  %10d  %10d%s%n", moves, plainNodes, threatNodes,
+                        100.0 * (plainNodes - threatNodes) / plainNodes,
+                        plain.getLastSearchStats().getElapsedNanos() / 1_000_000,
+                        threats.getLastSearchStats().getElapsedNanos() / 1_000_000,
+                        consistent ? "" : "  ERROR: scores differ");
+            }
+        }
+        System.out.printf("%-20s %12d %12d %10.1f%%%n", "total", plainTotal, threatTotal,
+                100.0 * (plainTotal - threatTotal) / plainTotal);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+ 
+    private static MinimaxAI search(Board board, int depth, boolean threatPruning) {
+        MinimaxAI ai = new MinimaxAI(depth);
+        ai.setEndgameThreshold(0); // Measure the search, not the solver
+        ai.setThreatPruning(threatPruning);
+        if (ai.findBestMove(board) == null) {
+            throw new IllegalStateException("No move found");
+        }
+        return ai;
+    }
+}
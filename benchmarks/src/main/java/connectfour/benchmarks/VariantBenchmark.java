@@ -0,0 +1,123 @@
+package connectfour.benchmarks;
+ 
+import connectfour.BitBoard;
+import connectfour.Board;
+import connectfour.MinimaxAI;
+import connectfour.Move;
+import connectfour.VariantBitBoard;
+import connectfour.VariantMinimaxAI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+ 
+import java.util.concurrent.TimeUnit;
+ 
+/**
+* JMH benchmarks comparing the specialized standard-board path with the generic one.
+* "standard" runs BitBoard and MinimaxAI; every other setting runs VariantBitBoard and
+* VariantMinimaxAI on a board of that size, "7x6c4" being the standard game through the
+* generic code. Positions are the middlegame set replayed on each board. findBestMove
+* searches from a cold table at a fixed depth; the other scores are per position.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantBenchmark {
+    private static final int POSITIONS = 4; // Size of the middlegame set
+    private static final int SEARCH_DEPTH = 7;
+ 
+    // <cols>x<rows>c<connect>
+    @Param({"standard", "7x6c4", "8x7c4", "9x7c4", "9x7c5"})
+    public String variant;
+ 
+    private boolean standard;
+    private Board[] boards;
+    private BitBoard[] bitBoards;
+    private VariantBitBoard[] variantBoards;
+    private MinimaxAI ai;
+    private VariantMinimaxAI variantAI;
+ 
+    @Setup
+    public void setUp() {
+        standard = variant.equals("standard");
+        int cols = standard ? Board.COLS : Integer.parseInt(variant.substring(0, variant.indexOf('x')));
+        int rows = standard ? Board.ROWS : Integer.parseInt(variant.substring(variant.indexOf('x') + 1, variant.indexOf('c')));
+        int connect = standard ? Board.CONNECT : Integer.parseInt(variant.substring(variant.indexOf('c') + 1));
+        boards = new Board[POSITIONS];
+        bitBoards = new BitBoard[POSITIONS];
+        variantBoards = new VariantBitBoard[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            boards[i] = BenchmarkPositions.boardFromMoves(BenchmarkPositions.MIDDLEGAME[i], new Board(rows, cols, connect));
+            if (standard) {
+                bitBoards[i] = new BitBoard(boards[i]);
+            }
+            variantBoards[i] = new VariantBitBoard(boards[i]);
+        }
+        ai = new MinimaxAI(SEARCH_DEPTH, 4);
+        ai.setEndgameThreshold(0);
+        variantAI = new VariantMinimaxAI(SEARCH_DEPTH, 4);
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void makeUndo(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            if (standard) {
+                BitBoard board = bitBoards[i];
+                int col = Integer.numberOfTrailingZeros(board.getValidMovesMask());
+                bh.consume(board.makeMove(col, Board.PLAYER_2));
+                board.undoMove(col);
+            } else {
+                VariantBitBoard board = variantBoards[i];
+                int col = Integer.numberOfTrailingZeros(board.getValidMovesMask());
+                bh.consume(board.makeMove(col, Board.PLAYER_2));
+                board.undoMove(col);
+            }
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void checkWin(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            bh.consume(standard ? bitBoards[i].checkWin(Board.PLAYER_1) : variantBoards[i].checkWin(Board.PLAYER_1));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void evaluate(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            bh.consume(standard ? ai.evaluate(bitBoards[i]) : variantAI.evaluate(variantBoards[i], Board.PLAYER_2));
+        }
+    }
+ 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void findBestMove(Blackhole bh) {
+        for (Board board : boards) {
+            Move move;
+            if (standard) {
+                ai.clearTranspositionTable();
+                move = ai.findBestMove(board);
+            } else {
+                variantAI.clearTranspositionTable();
+                move = variantAI.findBestMove(board);
+            }
+            bh.consume(move);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package connectfour;
+ 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+ 
+/**
+* Immutable result of MinimaxAI.analyze: a score, depth and principal variation for every
+* legal column of one position. While the analysis is deepening, columns that have not
+* finished the current iteration yet still carry the previous iteration's result, so the
+* depths of the columns may differ by one.
+*/
+public final class Analysis {
+    private final ColumnScore[] columns; // Indexed by column; null for full columns and ones not searched yet
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+ 
+    public Analysis(ColumnScore[] columns, int depth, long nodes, long elapsedNanos) {
+        this.columns = columns.clone();
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+ 
+    /**
+     * @return The result for a column, or null if the column is full or was not searched yet.
+     */
+    public ColumnScore getColumnScore(int col) {
+        return col >= 0 && col < columns.length ? columns[col] : null;
+    }
+ 
+    /**
+     * @return The results of all searched columns, in column order.
+     */
+    public List<ColumnScore> getColumnScores() {
+        List<ColumnScore> scores = new ArrayList<>();
+        for (ColumnScore score : columns) {
+            if (score != null) {
+                scores.add(score);
+            }
+        }
+        return Collections.unmodifiableList(scores);
+    }
+ 
+    /**
+     * @return The highest-scoring column, the one nearest the center on ties, or -1 if none was searched.
+     */
+    public int getBestColumn() {
+        int best = -1;
+        for (ColumnScore score : columns) {
+            if (score != null && (best < 0 || score.getScore() > columns[best].getScore()
+                    || (score.getScore() == columns[best].getScore()
+                        && Math.abs(2 * score.getColumn() - (columns.length - 1))
+                            < Math.abs(2 * best - (columns.length - 1))))) {
+                best = score.getColumn();
+            }
+        }
+        return best;
+    }
+ 
+    /**
+     * @return The deepest iteration every legal column has completed.
+     */
+    public int getDepth() {
+        return depth;
+    }
+ 
+    public long getNodes() {
+        return nodes;
+    }
+ 
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+ 
+    @Override
+    public String toString() {
+        return "Analysis{" +
+                "depth=" + depth +
+                ", nodes=" + nodes +
+                ", elapsedMs=" + elapsedNanos / 1_000_000 +
+                ", columns=" + getColumnScores() +
+                '}';
+    }
+ 
+    /**
+     * The value of playing one column.
+     */
+    public static final class ColumnScore {
+        private final int column;
+        private final int score;
+        private final int depth;
+        private final int result;
+        private final int pliesToEnd;
+        private final int[] principalVariation;
+ 
+        /**
+         * @param result 1 if the score is a forced win, -1 a forced loss, 0 a heuristic estimate.
+         * @param pliesToEnd For a forced result, the plies until the game ends, this column's move included.
+         */
+        public ColumnScore(int column, int score, int depth, int result, int pliesToEnd, int[] principalVariation) {
+            this.column = column;
+            this.score = score;
+            this.depth = depth;
+            this.result = result;
+            this.pliesToEnd = pliesToEnd;
+            this.principalVariation = principalVariation.clone();
+        }
+ 
+        public int getColumn() {
+            return column;
+        }
+ 
+        /**
+         * @return The exact minimax score at getDepth(), from the point of view of the side to move.
+         *         Wins and losses are beyond any heuristic score, larger for faster wins and slower
+         *         losses, and do not depend on the depth, so all columns compare directly.
+         */
+        public int getScore() {
+            return score;
+        }
+ 
+        /**
+         * @return The depth this column was searched to, counting the column's own move.
+         */
+        public int getDepth() {
+            return depth;
+        }
+ 
+        public boolean isWin() {
+            return result > 0;
+        }
+ 
+        public boolean isLoss() {
+            return result < 0;
+        }
+ 
+        /**
+         * @return For a win or loss, the plies until the game ends, this column's move included; otherwise 0.
+         */
+        public int getPliesToEnd() {
+            return pliesToEnd;
+        }
+ 
+        /**
+         * @return The expected line of play, starting with this column.
+         */
+        public int[] getPrincipalVariation() {
+            return principalVariation.clone();
+        }
+ 
+        @Override
+        public String toString() {
+            return column + ":" + score + (isWin() ? "(win in " + pliesToEnd + ")"
+                    : isLoss() ? "(loss in " + pliesToEnd + ")" : "") + "@" + depth
+                    + Arrays.toString(principalVariation);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package connectfour;
+ 
+/**
+* Receives the intermediate results of MinimaxAI.analyze: one call each time a column
+* finishes, and one more when a deepening iteration completes, with the iteration's depth
+* as the completed depth.
+* Called on the analyzing thread; implementations that touch the UI must hand off to it.
+*/
+@FunctionalInterface
+public interface AnalysisListener {
+    void onAnalysisUpdated(Analysis analysis);
+}
@@ -0,0 +1,457 @@
+package connectfour;
+ 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+ 
+/**
+* Bitboard-backed Connect Four position used by the search engine.
+* Each player's pieces are stored in one 64-bit long. Columns are laid out
+* bottom-up in blocks of ROWS + 1 bits (the extra bit is a sentinel that keeps
+* shifted patterns from wrapping into the next column):
+*
+*    6 13 20 27 34 41 48   <- sentinel row
+*    5 12 19 26 33 40 47
+*    4 11 18 25 32 39 46
+*    3 10 17 24 31 38 45
+*    2  9 16 23 30 37 44
+*    1  8 15 22 29 36 43
+*    0  7 14 21 28 35 42
+*
+* Moves are applied in place with makeMove/undoMove so the search never copies the board.
+* A Zobrist hash of the position and one of its mirror image are kept up to date by the
+* same two methods, as are the piece counts of all 69 four-cell windows that the evaluation function scores.
+* From the window counts the two methods also maintain each player's threats (empty cells
+* that would complete a four) and completed fours, so checkWin and getThreatMask cost a
+* single read.
+*/
+public class BitBoard {
+    public static final int ROWS = Board.ROWS;
+    public static final int COLS = Board.COLS;
+    private static final int HEIGHT = ROWS + 1; // Bits per column, including the sentinel
+    private static final int CELLS = ROWS * COLS;
+    // All playable bits (sentinel row excluded)
+    private static final long BOARD_MASK = ((1L << (COLS * HEIGHT)) - 1) / ((1L << HEIGHT) - 1) * ((1L << ROWS) - 1);
+    // Lowest bit of every column
+    private static final long BOTTOM_MASK = ((1L << (COLS * HEIGHT)) - 1) / ((1L << HEIGHT) - 1);
+    private static final long COLUMN_MASK = (1L << HEIGHT) - 1; // One column including the sentinel
+ 
+    // One random key per (player, bit); fixed seed so hashes are stable across runs
+    private static final long[][] ZOBRIST = new long[2][COLS * HEIGHT];
+    // The key of the mirrored bit, so that mirrorHash is the hash the mirror image would have
+    private static final long[][] MIRROR_ZOBRIST = new long[2][COLS * HEIGHT];
+ 
+    static {
+        Random random = new Random(0x5EEDC4L);
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < COLS * HEIGHT; i++) {
+                ZOBRIST[p][i] = random.nextLong();
+            }
+        }
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < COLS * HEIGHT; i++) {
+                MIRROR_ZOBRIST[p][i] = ZOBRIST[p][(COLS - 1 - i / HEIGHT) * HEIGHT + i % HEIGHT];
+            }
+        }
+    }
+ 
+    // Every four-cell window (horizontal, vertical and both diagonals), and for each bit the windows through it
+    public static final int WINDOW_COUNT;
+    private static final int[][] CELL_WINDOWS = new int[COLS * HEIGHT][];
+    private static final long[] WINDOW_MASKS; // The four bits of each window
+ 
+    static {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}}; // {dCol, dRow}
+        int[] windowsPerCell = new int[COLS * HEIGHT];
+        int[][] cellWindows = new int[COLS * HEIGHT][16];
+        long[] windowMasks = new long[COLS * ROWS * directions.length];
+        int windows = 0;
+        for (int[] d : directions) {
+            for (int c = 0; c < COLS; c++) {
+                for (int r = 0; r < ROWS; r++) {
+                    int endCol = c + 3 * d[0];
+                    int endRow = r + 3 * d[1];
+                    if (endCol >= COLS || endRow < 0 || endRow >= ROWS) {
+                        continue;
+                    }
+                    for (int i = 0; i < 4; i++) {
+                        int bit = (c + i * d[0]) * HEIGHT + r + i * d[1];
+                        cellWindows[bit][windowsPerCell[bit]++] = windows;
+                        windowMasks[windows] |= 1L << bit;
+                    }
+                    windows++;
+                }
+            }
+        }
+        WINDOW_COUNT = windows;
+        WINDOW_MASKS = Arrays.copyOf(windowMasks, windows);
+        for (int bit = 0; bit < COLS * HEIGHT; bit++) {
+            CELL_WINDOWS[bit] = Arrays.copyOf(cellWindows[bit], windowsPerCell[bit]);
+        }
+    }
+ 
+    private final long[] pieces = new long[2]; // Indexed by player - 1
+    private final int[] height = new int[COLS]; // Bit index of the next free cell in each column
+    private int moveCount;
+    private long hash;
+    private long mirrorHash;
+    private int validMoves = (1 << COLS) - 1; // Bit c set while column c is not full
+    private final byte[][] windowPieces = new byte[2][WINDOW_COUNT]; // Pieces per window, by player - 1
+    // lineCounts[p][k]: windows holding exactly k of player p's pieces and none of the opponent's
+    private final int[][] lineCounts = new int[2][5];
+    private final long[] threats = new long[2]; // Empty cells completing a four, by player - 1
+    private final byte[][] threatWindows = new byte[2][COLS * HEIGHT]; // Windows making each cell a threat
+    private final int[] fours = new int[2]; // Completed fours, by player - 1
+ 
+    public BitBoard() {
+        for (int c = 0; c < COLS; c++) {
+            height[c] = c * HEIGHT;
+        }
+        lineCounts[0][0] = WINDOW_COUNT;
+        lineCounts[1][0] = WINDOW_COUNT;
+    }
+ 
+    // Copy constructor, only needed once per search (never per node)
+    public BitBoard(BitBoard other) {
+        this.pieces[0] = other.pieces[0];
+        this.pieces[1] = other.pieces[1];
+        System.arraycopy(other.height, 0, this.height, 0, COLS);
+        this.moveCount = other.moveCount;
+        this.hash = other.hash;
+        this.mirrorHash = other.mirrorHash;
+        this.validMoves = other.validMoves;
+        for (int p = 0; p < 2; p++) {
+            System.arraycopy(other.windowPieces[p], 0, this.windowPieces[p], 0, WINDOW_COUNT);
+            System.arraycopy(other.lineCounts[p], 0, this.lineCounts[p], 0, 5);
+            System.arraycopy(other.threatWindows[p], 0, this.threatWindows[p], 0, COLS * HEIGHT);
+            this.threats[p] = other.threats[p];
+            this.fours[p] = other.fours[p];
+        }
+    }
+ 
+    /**
+     * Builds a bitboard from the grid representation used by the game controller.
+     * @param board The board to convert.
+     */
+    public BitBoard(Board board) {
+        this(board, false);
+    }
+ 
+    /**
+     * Builds a bitboard from the grid, optionally exchanging the two players' pieces.
+     * @param board The board to convert; must be the standard size (see Board.isStandard).
+     * @param swapPlayers true to turn Player 1's pieces into Player 2's and vice versa.
+     */
+    public BitBoard(Board board, boolean swapPlayers) {
+        this();
+        if (!board.isStandard()) {
+            throw new IllegalArgumentException("BitBoard only holds the standard board; use VariantBitBoard");
+        }
+        for (int c = 0; c < COLS; c++) {
+            for (int r = ROWS - 1; r >= 0; r--) {
+                int cell = board.getCell(r, c);
+                if (cell == Board.EMPTY) {
+                    break;
+                }
+                // Order between columns does not matter for the final state
+                makeMove(c, swapPlayers ? Board.PLAYER_1 + Board.PLAYER_2 - cell : cell);
+            }
+        }
+    }
+ 
+    /**
+     * Drops a piece for the given player into a column, in place.
+     * @param col The column index (0-6) where the piece is dropped.
+     * @param player The player ID (Board.PLAYER_1 or Board.PLAYER_2).
+     * @return true if the move was successful, false if the column is full.
+     */
+    public boolean makeMove(int col, int player) {
+        if (!isColumnValid(col)) {
+            return false;
+        }
+        int bit = height[col];
+        pieces[player - 1] |= 1L << bit;
+        hash ^= ZOBRIST[player - 1][bit];
+        mirrorHash ^= MIRROR_ZOBRIST[player - 1][bit];
+        addToWindows(bit, player - 1);
+        height[col]++;
+        moveCount++;
+        if (height[col] == col * HEIGHT + ROWS) {
+            validMoves &= ~(1 << col);
+        }
+        return true;
+    }
+ 
+    /**
+     * Removes the top piece of a column, reverting the matching makeMove.
+     * @param col The column the last piece was dropped into.
+     */
+    public void undoMove(int col) {
+        height[col]--;
+        long bit = 1L << height[col];
+        int owner = (pieces[0] & bit) != 0 ? 0 : 1;
+        pieces[owner] &= ~bit;
+        hash ^= ZOBRIST[owner][height[col]];
+        mirrorHash ^= MIRROR_ZOBRIST[owner][height[col]];
+        removeFromWindows(height[col], owner);
+        moveCount--;
+        validMoves |= 1 << col;
+    }
+ 
+    // A window is "open" for a player while the opponent has no piece in it; an open window
+    // with three pieces makes its empty cell a threat. Called after pieces[owner] has the bit.
+    private void addToWindows(int bit, int owner) {
+        byte[] mine = windowPieces[owner];
+        byte[] theirs = windowPieces[1 - owner];
+        int[] myLines = lineCounts[owner];
+        int[] theirLines = lineCounts[1 - owner];
+        for (int w : CELL_WINDOWS[bit]) {
+            int a = mine[w];
+            int b = theirs[w];
+            if (b == 0) {
+                myLines[a]--; // Still open for us, one piece longer
+                myLines[a + 1]++;
+                if (a == 2) {
+                    addThreat(owner, Long.numberOfTrailingZeros(WINDOW_MASKS[w] & ~pieces[owner]));
+                } else if (a == 3) {
+                    removeThreat(owner, bit); // Filled our own threat
+                    fours[owner]++;
+                }
+            } else if (a == 0) {
+                theirLines[b]--; // Was open for the opponent, now blocked
+                if (b == 3) {
+                    removeThreat(1 - owner, bit);
+                }
+            }
+            mine[w] = (byte) (a + 1);
+        }
+    }
+ 
+    // Called after pieces[owner] has lost the bit
+    private void removeFromWindows(int bit, int owner) {
+        byte[] mine = windowPieces[owner];
+        byte[] theirs = windowPieces[1 - owner];
+        int[] myLines = lineCounts[owner];
+        int[] theirLines = lineCounts[1 - owner];
+        for (int w : CELL_WINDOWS[bit]) {
+            int a = mine[w] - 1;
+            int b = theirs[w];
+            if (b == 0) {
+                myLines[a + 1]--;
+                myLines[a]++;
+                if (a == 2) {
+                    // The window's other empty cell is no longer completed by it
+                    removeThreat(owner, Long.numberOfTrailingZeros(WINDOW_MASKS[w] & ~pieces[owner] & ~(1L << bit)));
+                } else if (a == 3) {
+                    fours[owner]--;
+                    addThreat(owner, bit);
+                }
+            } else if (a == 0) {
+                theirLines[b]++; // Open for the opponent again
+                if (b == 3) {
+                    addThreat(1 - owner, bit);
+                }
+            }
+            mine[w] = (byte) a;
+        }
+    }
+ 
+    private void addThreat(int owner, int bit) {
+        if (threatWindows[owner][bit]++ == 0) {
+            threats[owner] |= 1L << bit;
+        }
+    }
+ 
+    private void removeThreat(int owner, int bit) {
+        if (--threatWindows[owner][bit] == 0) {
+            threats[owner] &= ~(1L << bit);
+        }
+    }
+ 
+    public boolean isColumnValid(int col) {
+        if (col < 0 || col >= COLS) {
+            return false;
+        }
+        return (validMoves & (1 << col)) != 0;
+    }
+ 
+    /**
+     * Finds all valid moves (columns that are not full).
+     * @return A shared, unmodifiable list of column indices (Moves); nothing is allocated.
+     */
+    public List<Move> getValidMoves() {
+        return Move.listOf(validMoves);
+    }
+ 
+    /**
+     * @return A 7-bit mask where bit c is set if column c is not full. Maintained incrementally.
+     */
+    public int getValidMovesMask() {
+        return validMoves;
+    }
+ 
+    /**
+     * Writes the valid columns into a caller-supplied buffer, in column order.
+     * @param moves Buffer with room for at least COLS entries.
+     * @return The number of valid columns written.
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int mask = validMoves; mask != 0; mask &= mask - 1) {
+            moves[count++] = Integer.numberOfTrailingZeros(mask);
+        }
+        return count;
+    }
+ 
+    /**
+     * Checks whether the player has four in a row anywhere on the board.
+     * Reads the count of completed fours that makeMove/undoMove maintain.
+     * @param player The player to check.
+     * @return true if the player has a connected four.
+     */
+    public boolean checkWin(int player) {
+        return fours[player - 1] != 0;
+    }
+ 
+    /**
+     * Checks if the game is a draw (board is full and no winner).
+     */
+    public boolean isDraw() {
+        return moveCount == CELLS;
+    }
+ 
+    /**
+     * Number of windows in which the player has exactly the given number of pieces and the opponent none,
+     * i.e. potential fours that are still alive. Maintained incrementally by makeMove/undoMove.
+     * @param player The player to count for.
+     * @param pieces 1 to 3 (4 means the player has already won).
+     */
+    public int getOpenLines(int player, int pieces) {
+        return lineCounts[player - 1][pieces];
+    }
+ 
+    /**
+     * Empty cells that would complete four in a row for the player if the player owned them.
+     * Maintained incrementally by makeMove/undoMove.
+     */
+    public long getThreatMask(int player) {
+        return threats[player - 1];
+    }
+ 
+    /**
+     * @return The cells a piece can be dropped into right now, one per column that is not full.
+     */
+    public long getPlayableMask() {
+        return ((pieces[0] | pieces[1]) + BOTTOM_MASK) & BOARD_MASK;
+    }
+ 
+    /**
+     * @return The column of a single cell bit, e.g. one of getPlayableMask().
+     */
+    public static int columnOf(long cell) {
+        return Long.numberOfTrailingZeros(cell) / HEIGHT;
+    }
+ 
+    /**
+     * @return The raw bitboard of the given player's pieces.
+     */
+    public long getPieces(int player) {
+        return pieces[player - 1];
+    }
+ 
+    /**
+     * @return The Zobrist hash of the current position (pieces only, not side to move).
+     */
+    public long getHash() {
+        return hash;
+    }
+ 
+    /**
+     * @return The Zobrist hash the mirror image of the current position would have.
+     *         Math.min(getHash(), getMirrorHash()) is the same for a position and its mirror.
+     */
+    public long getMirrorHash() {
+        return mirrorHash;
+    }
+ 
+    /**
+     * Whether the position equals its own mirror image, in which case column c and
+     * column COLS - 1 - c lead to mirrored positions with the same value.
+     * Costs one comparison unless the hashes match.
+     */
+    public boolean isSymmetric() {
+        return hash == mirrorHash && mirror(pieces[0]) == pieces[0] && mirror(pieces[1]) == pieces[1];
+    }
+ 
+    /**
+     * A collision-free encoding of the whole position in COLS * (ROWS + 1) bits: Player 2's
+     * pieces plus a marker bit on top of each column's stack. Unlike the Zobrist hash it is
+     * identical across versions and runs, so it is suitable as a key in files.
+     */
+    public long getPositionKey() {
+        return pieces[1] + (pieces[0] | pieces[1]) + BOTTOM_MASK;
+    }
+ 
+    /**
+     * The cells occupied in a position from getPositionKey; key & occupiedMask(key) are
+     * then Player 2's pieces and the rest of the mask Player 1's.
+     */
+    public static long occupiedMask(long positionKey) {
+        long occupied = 0;
+        for (int c = 0; c < COLS; c++) {
+            long column = (positionKey >>> (c * HEIGHT)) & COLUMN_MASK;
+            occupied |= (Long.highestOneBit(column) - 1) << (c * HEIGHT); // Every cell below the marker
+        }
+        return occupied;
+    }
+ 
+    /**
+     * The Zobrist hash getHash() returns for a position with the given pieces, computed
+     * without building the board.
+     */
+    public static long zobristHash(long player1Pieces, long player2Pieces) {
+        long h = 0;
+        for (long bits = player1Pieces; bits != 0; bits &= bits - 1) {
+            h ^= ZOBRIST[0][Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = player2Pieces; bits != 0; bits &= bits - 1) {
+            h ^= ZOBRIST[1][Long.numberOfTrailingZeros(bits)];
+        }
+        return h;
+    }
+ 
+    /**
+     * Reflects a bitboard or position key left to right (column c becomes column COLS - 1 - c).
+     */
+    public static long mirror(long bits) {
+        long mirrored = 0;
+        for (int c = 0; c < COLS; c++) {
+            mirrored |= ((bits >>> (c * HEIGHT)) & COLUMN_MASK) << ((COLS - 1 - c) * HEIGHT);
+        }
+        return mirrored;
+    }
+ 
+    public int getMoveCount() {
+        return moveCount;
+    }
+ 
+    // Row 0 is the top row, matching Board.getCell
+    public int getCell(int r, int c) {
+        long bit = 1L << (c * HEIGHT + ROWS - 1 - r);
+        if ((pieces[0] & bit) != 0) {
+            return Board.PLAYER_1;
+        }
+        if ((pieces[1] & bit) != 0) {
+            return Board.PLAYER_2;
+        }
+        return Board.EMPTY;
+    }
+ 
+    public int getRows() {
+        return ROWS;
+    }
+ 
+    public int getCols() {
+        return COLS;
+    }
+}
@@ -0,0 +1,209 @@
+package connectfour;
+ 
+import java.util.List;
+ 
+/**
+* Represents the Connect Four game board state and handles core game logic.
+* The board uses 0 for empty, 1 for Player 1 (Human), and 2 for Player 2 (AI).
+* The default board is the standard 7 x 6 Connect Four; variants may use other
+* dimensions and a different number of pieces in a row to win (connect-N).
+*/
+public class Board {
+    // The standard game, which the engine's BitBoard fast path is specialized for
+    public static final int ROWS = 6;
+    public static final int COLS = 7;
+    public static final int CONNECT = 4;
+    // Columns fit the 4-bit moves of the transposition table
+    public static final int MAX_COLS = 15;
+    // Cells plus one sentinel per column must fit the 128 bits of a VariantBitBoard
+    public static final int MAX_BITS = 128;
+    public static final int EMPTY = 0;
+    public static final int PLAYER_1 = 1; // Human
+    public static final int PLAYER_2 = 2; // AI
+ 
+    private final int rows;
+    private final int cols;
+    private final int connect;
+    private final int[][] grid;
+    private int lastMoveCol = -1;
+    private int lastMoveRow = -1;
+ 
+    public Board() {
+        this(ROWS, COLS, CONNECT);
+    }
+ 
+    /**
+     * Creates an empty board of any supported size.
+     * @param rows Number of rows.
+     * @param cols Number of columns, at most MAX_COLS.
+     * @param connect Pieces in a row needed to win.
+     */
+    public Board(int rows, int cols, int connect) {
+        if (rows < 1 || cols < 1 || cols > MAX_COLS || (rows + 1) * cols > MAX_BITS) {
+            throw new IllegalArgumentException("Unsupported board size: " + cols + "x" + rows);
+        }
+        if (connect < 2 || connect > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Unsupported connect length " + connect + " for " + cols + "x" + rows);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        this.grid = new int[rows][cols];
+    }
+ 
+    // Copy constructor for deep cloning, essential for Minimax
+    public Board(Board other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.connect = other.connect;
+        this.grid = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(other.grid[i], 0, this.grid[i], 0, cols);
+        }
+        this.lastMoveCol = other.lastMoveCol;
+        this.lastMoveRow = other.lastMoveRow;
+    }
+ 
+    /**
+     * Executes a move on the board for the given player.
+     * @param col The column index (0-6 on the standard board) where the piece is dropped.
+     * @param player The player ID (PLAYER_1 or PLAYER_2).
+     * @return true if the move was successful, false if the column is full.
+     */
+    public boolean makeMove(int col, int player) {
+        if (!isColumnValid(col)) {
+            return false;
+        }
+ 
+        for (int r = rows - 1; r >= 0; r--) {
+            if (grid[r][col] == EMPTY) {
+                grid[r][col] = player;
+                this.lastMoveRow = r;
+                this.lastMoveCol = col;
+                return true;
+            }
+        }
+        return false; // Should not happen if validity check is correct
+    }
+ 
+    public boolean isColumnValid(int col) {
+        if (col < 0 || col >= cols) {
+            return false;
+        }
+        return grid[0][col] == EMPTY; // Check if top row is empty
+    }
+ 
+    /**
+     * Finds all valid moves (columns that are not full).
+     * @return A shared, unmodifiable list of column indices (Moves); nothing is allocated.
+     */
+    public List<Move> getValidMoves() {
+        return Move.listOf(getValidMovesMask());
+    }
+ 
+    /**
+     * @return A mask with one bit per column where bit c is set if column c is not full.
+     */
+    public int getValidMovesMask() {
+        int mask = 0;
+        for (int c = 0; c < cols; c++) {
+            if (grid[0][c] == EMPTY) { // Top row is empty
+                mask |= 1 << c;
+            }
+        }
+        return mask;
+    }
+ 
+    /**
+     * Writes the valid columns into a caller-supplied buffer, in column order.
+     * @param moves Buffer with room for at least getCols() entries.
+     * @return The number of valid columns written.
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int c = 0; c < cols; c++) {
+            if (grid[0][c] == EMPTY) {
+                moves[count++] = c;
+            }
+        }
+        return count;
+    }
+ 
+    /**
+     * Checks if the last move resulted in a win.
+     * This is the heavy lifting of the game logic.
+     * @param player The player who just made the last move.
+     * @return true if the player won, false otherwise.
+     */
+    public boolean checkWin(int player) {
+        if (lastMoveCol == -1 || lastMoveRow == -1) {
+            return false;
+        }
+ 
+        // Check four directions: Horizontal, Vertical, Diagonal (\), Diagonal (/)
+        return checkDirection(1, 0, player) || // Horizontal
+               checkDirection(0, 1, player) || // Vertical
+               checkDirection(1, 1, player) || // Diagonal (\)
+               checkDirection(1, -1, player); // Diagonal (/)
+    }
+ 
+    // Helper method to check for connect pieces in a row in a specific direction
+    private boolean checkDirection(int dRow, int dCol, int player) {
+        int count = 1;
+ 
+        // Check forwards/up/right
+        for (int i = 1; i < connect; i++) {
+            int r = lastMoveRow + dRow * i;
+            int c = lastMoveCol + dCol * i;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && grid[r][c] == player) {
+                count++;
+            } else {
+                break;
+            }
+        }
+ 
+        // Check backwards/down/left
+        for (int i = 1; i < connect; i++) {
+            int r = lastMoveRow - dRow * i;
+            int c = lastMoveCol - dCol * i;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && grid[r][c] == player) {
+                count++;
+            } else {
+                break;
+            }
+        }
+ 
+        return count >= connect;
+    }
+ 
+    /**
+     * Checks if the game is a draw (board is full and no winner).
+     */
+    public boolean isDraw() {
+        return getValidMovesMask() == 0;
+    }
+ 
+    public int getCell(int r, int c) {
+        return grid[r][c];
+    }
+ 
+    public int getRows() {
+        return rows;
+    }
+ 
+    public int getCols() {
+        return cols;
+    }
+ 
+    public int getConnect() {
+        return connect;
+    }
+ 
+    /**
+     * @return true for the standard 7 x 6 connect-four board, which the search handles
+     *         with its specialized BitBoard; every other size takes the generic path.
+     */
+    public boolean isStandard() {
+        return rows == ROWS && cols == COLS && connect == CONNECT;
+    }
+}
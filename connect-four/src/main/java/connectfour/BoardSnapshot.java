@@ -0,0 +1,41 @@
+package connectfour;
+ 
+/**
+* Immutable copy of the cells of a Board, safe to hand from the thread that changed the
+* game to the one that draws it. Holds only what is needed to display the position.
+*/
+public final class BoardSnapshot {
+    private final int rows;
+    private final int cols;
+    private final byte[] cells; // Row-major, row 0 at the top as in Board
+ 
+    public BoardSnapshot(Board board) {
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.cells = new byte[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                cells[r * cols + c] = (byte) board.getCell(r, c);
+            }
+        }
+    }
+ 
+    public int getCell(int r, int c) {
+        return cells[r * cols + c];
+    }
+ 
+    public int getRows() {
+        return rows;
+    }
+ 
+    public int getCols() {
+        return cols;
+    }
+ 
+    /**
+     * @return true if the other snapshot has the same number of rows and columns.
+     */
+    public boolean isSameSize(BoardSnapshot other) {
+        return rows == other.rows && cols == other.cols;
+    }
+}
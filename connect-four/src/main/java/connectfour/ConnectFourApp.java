@@ -0,0 +1,272 @@
+package connectfour;
+ 
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+ 
+/**
+* Main class for the GUI using Swing (as a simple skeleton).
+* In a professional implementation, JavaFX is often preferred.
+*
+* The controller reports changes from whichever thread made them, the AI worker included.
+* Each update is turned into an immutable value there and handed to the Event Dispatch
+* Thread through a CoalescingUpdater, so a burst of updates costs one repaint with the
+* latest state and the EDT never waits for the search.
+*/
+public class ConnectFourApp extends JFrame {
+    private static final int TILE_SIZE = 80;
+    private final GameController controller;
+    private final BoardPanel boardPanel;
+    private final JLabel messageLabel;
+    private final JLabel statsLabel;
+    private final JComboBox<Integer> depthChooser;
+    private final JComboBox<String> timeChooser;
+    private final JComboBox<String> variantChooser;
+    private final CoalescingUpdater<BoardSnapshot> boardUpdates;
+    private final CoalescingUpdater<String> messageUpdates;
+    private final CoalescingUpdater<String> statsUpdates;
+ 
+    public ConnectFourApp() {
+        super("Connect Four AI (Minimax)");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        
+        // Initialize UI components
+        this.messageLabel = new JLabel("Welcome! Choose a difficulty and start.", SwingConstants.CENTER);
+        this.statsLabel = new JLabel(" ", SwingConstants.CENTER);
+        this.boardPanel = new BoardPanel();
+        this.boardUpdates = new CoalescingUpdater<>(this::showBoard);
+        this.messageUpdates = new CoalescingUpdater<>(messageLabel::setText);
+        this.statsUpdates = new CoalescingUpdater<>(statsLabel::setText);
+        
+        // Initialize Controller, providing UI update methods
+        this.controller = new GameController(
+            this::updateBoardUI, 
+            this::updateMessage
+        );
+        this.controller.addSearchStatsListener(this::updateStats);
+ 
+        // --- Setup Layout ---
+        setLayout(new BorderLayout(10, 10));
+ 
+        // Top Panel for controls
+        JPanel controlPanel = new JPanel();
+        controlPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 20, 10));
+ 
+        // Difficulty Chooser
+        controlPanel.add(new JLabel("AI Depth:"));
+        Integer[] depths = {1, 2, 3, 4, 5, 6}; // Max depth 6 is usually good for Connect4
+        depthChooser = new JComboBox<>(depths);
+        depthChooser.setSelectedItem(5);
+        depthChooser.addActionListener(e -> {
+            int depth = (int) depthChooser.getSelectedItem();
+            controller.setAIDifficulty(depth);
+        });
+        controlPanel.add(depthChooser);
+ 
+        // Time Limit Chooser (overrides the depth when set)
+        controlPanel.add(new JLabel("AI Time:"));
+        String[] timeLabels = {"Off", "0.5 s", "1 s", "2 s", "5 s"};
+        Duration[] timeBudgets = {null, Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)};
+        timeChooser = new JComboBox<>(timeLabels);
+        timeChooser.addActionListener(e -> controller.setAITimeBudget(timeBudgets[timeChooser.getSelectedIndex()]));
+        controlPanel.add(timeChooser);
+ 
+        // Board variant: {rows, cols, connect}; the first is the standard game
+        controlPanel.add(new JLabel("Board:"));
+        String[] variantLabels = {"7x6 Connect 4", "8x7 Connect 4", "9x7 Connect 4", "9x7 Connect 5"};
+        int[][] variants = {{Board.ROWS, Board.COLS, Board.CONNECT}, {7, 8, 4}, {7, 9, 4}, {7, 9, 5}};
+        variantChooser = new JComboBox<>(variantLabels);
+        variantChooser.addActionListener(e -> {
+            int[] v = variants[variantChooser.getSelectedIndex()];
+            controller.setVariant(v[0], v[1], v[2]);
+        });
+        controlPanel.add(variantChooser);
+ 
+        // Pondering: keep searching while the human thinks
+        JCheckBox ponderBox = new JCheckBox("Ponder");
+        ponderBox.addActionListener(e -> controller.setPondering(ponderBox.isSelected()));
+        controlPanel.add(ponderBox);
+ 
+        // Reset Button
+        JButton resetButton = new JButton("New Game");
+        resetButton.addActionListener(e -> controller.resetGame());
+        controlPanel.add(resetButton);
+ 
+        // Add components to JFrame
+        add(controlPanel, BorderLayout.NORTH);
+        add(boardPanel, BorderLayout.CENTER);
+        JPanel statusPanel = new JPanel(new GridLayout(2, 1));
+        statusPanel.add(messageLabel);
+        statusPanel.add(statsLabel);
+        add(statusPanel, BorderLayout.SOUTH);
+ 
+        // Final setup
+        pack();
+        setLocationRelativeTo(null); // Center window
+        setVisible(true);
+ 
+        // Ensure shutdown hook is called
+        Runtime.getRuntime().addShutdownHook(new Thread(controller::shutdown));
+    }
+ 
+    // --- UI Update Methods ---
+ 
+    // The callbacks run on the controller's threads; only immutable values cross to the EDT
+    private void updateBoardUI(Board board) {
+        boardUpdates.post(new BoardSnapshot(board));
+    }
+ 
+    private void showBoard(BoardSnapshot snapshot) {
+        if (boardPanel.setBoard(snapshot)) {
+            pack(); // A variant of another size was chosen
+        }
+    }
+ 
+    private void updateMessage(String message) {
+        messageUpdates.post(message);
+    }
+ 
+    private void updateStats(SearchStats stats) {
+        String text = String.format("Depth %d | %,d nodes | %.1f M nodes/s | %d ms | cutoffs on 1st move %.0f%% | PV %s",
+                stats.getDepth(), stats.getNodes(), stats.getNodesPerSecond() / 1e6,
+                stats.getElapsedNanos() / 1_000_000, stats.getFirstMoveCutoffRatio() * 100,
+                Arrays.toString(stats.getPrincipalVariation()));
+        statsUpdates.post(text);
+    }
+ 
+    /**
+     * Hands values from any thread to a consumer on the EDT, keeping only the latest.
+     * At most one task per updater is queued on the EDT at a time; values posted before
+     * it runs replace each other, so a fast producer cannot flood the event queue.
+     */
+    private static final class CoalescingUpdater<T> {
+        private final AtomicReference<T> pending = new AtomicReference<>();
+        private final Consumer<T> target;
+ 
+        CoalescingUpdater(Consumer<T> target) {
+            this.target = target;
+        }
+ 
+        // value must not be null: null marks that no task is queued
+        void post(T value) {
+            if (pending.getAndSet(value) == null) {
+                SwingUtilities.invokeLater(this::deliver);
+            }
+        }
+ 
+        private void deliver() {
+            target.accept(pending.getAndSet(null));
+        }
+    }
+ 
+    // --- Inner Class for Drawing the Board ---
+    private class BoardPanel extends JPanel {
+        // Slot images indexed by cell value, drawn once instead of once per cell and frame
+        private final BufferedImage[] tiles = {
+            createTile(null), createTile(Color.YELLOW), createTile(Color.RED)
+        };
+        private BoardSnapshot currentBoard; // Only touched on the EDT
+ 
+        public BoardPanel() {
+            setPreferredSize(new Dimension(Board.COLS * TILE_SIZE, Board.ROWS * TILE_SIZE));
+            setBackground(Color.DARK_GRAY);
+            setOpaque(true); // The tiles cover every pixel, so nothing behind the panel is painted
+            
+            // Add mouse listener for human input
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (!controller.isGameActive() || controller.getCurrentPlayer() != Board.PLAYER_1) {
+                         // Ignore clicks if game is over or it's the AI's turn
+                         return;
+                    }
+                    
+                    int col = e.getX() / TILE_SIZE;
+                    if (currentBoard != null && col >= 0 && col < currentBoard.getCols()) {
+                        controller.handleHumanMove(col);
+                    }
+                }
+            });
+        }
+ 
+        /**
+         * Shows a new position, repainting only the cells that differ from the one shown.
+         * @return true if the board has a different size than the previous one.
+         */
+        public boolean setBoard(BoardSnapshot board) {
+            BoardSnapshot previous = currentBoard;
+            this.currentBoard = board;
+            if (previous == null || !previous.isSameSize(board)) {
+                setPreferredSize(new Dimension(board.getCols() * TILE_SIZE, board.getRows() * TILE_SIZE));
+                repaint();
+                return previous != null;
+            }
+            // Usually a single cell; the RepaintManager merges several into one paint
+            for (int r = 0; r < board.getRows(); r++) {
+                for (int c = 0; c < board.getCols(); c++) {
+                    if (board.getCell(r, c) != previous.getCell(r, c)) {
+                        repaint(c * TILE_SIZE, r * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+                    }
+                }
+            }
+            return false;
+        }
+ 
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (currentBoard == null) return;
+ 
+            // Draw only the cells inside the damaged region
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(getWidth(), getHeight());
+            }
+            int firstRow = Math.max(0, clip.y / TILE_SIZE);
+            int lastRow = Math.min(currentBoard.getRows() - 1, (clip.y + clip.height - 1) / TILE_SIZE);
+            int firstCol = Math.max(0, clip.x / TILE_SIZE);
+            int lastCol = Math.min(currentBoard.getCols() - 1, (clip.x + clip.width - 1) / TILE_SIZE);
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstCol; c <= lastCol; c++) {
+                    g.drawImage(tiles[currentBoard.getCell(r, c)], c * TILE_SIZE, r * TILE_SIZE, null);
+                }
+            }
+        }
+ 
+        // One slot on the grid background: the empty hole, or a piece with a thin border
+        private BufferedImage createTile(Color pieceColor) {
+            BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = tile.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(Color.DARK_GRAY);
+            g2d.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+ 
+            // Draw the slot background (blue background for Connect Four game)
+            g2d.setColor(new Color(0, 102, 204));
+            g2d.fillOval(5, 5, TILE_SIZE - 10, TILE_SIZE - 10);
+ 
+            // Draw the piece if present
+            if (pieceColor != null) {
+                g2d.setColor(pieceColor);
+                g2d.fillOval(5, 5, TILE_SIZE - 10, TILE_SIZE - 10);
+ 
+                // Add a small shadow/border effect
+                g2d.setColor(Color.BLACK);
+                g2d.drawOval(5, 5, TILE_SIZE - 10, TILE_SIZE - 10);
+            }
+            g2d.dispose();
+            return tile;
+        }
+    }
+ 
+    public static void main(String[] args) {
+        // Swing applications must be run on the EDT
+        SwingUtilities.invokeLater(ConnectFourApp::new);
+    }
+}
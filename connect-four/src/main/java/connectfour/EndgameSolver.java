@@ -0,0 +1,320 @@
+package connectfour;
+ 
+import java.util.Arrays;
+ 
+/**
+* Exact solver for positions near the end of the game.
+* A negamax search that only ever asks yes/no questions ("is the score above x?") with
+* null windows, narrowing the score interval by bisection like MTD(f). It never plays a
+* move that lets the opponent win at once, orders moves by the number of threats they
+* create, and caches upper bounds in its own table, keyed so that entries are exact.
+*
+* Scores follow the usual solver convention, from the side to move's point of view:
+* 0 is a draw, a positive score s means the side to move wins with its
+* (ROWS * COLS / 2 + 1 - s)-th stone, and a negative score that the opponent wins in
+* the same way; larger magnitudes are faster results.
+*/
+public class EndgameSolver {
+    public static final int ABORTED = Integer.MIN_VALUE;
+ 
+    private static final int ROWS = BitBoard.ROWS;
+    private static final int COLS = BitBoard.COLS;
+    private static final int HEIGHT = ROWS + 1;
+    private static final int CELLS = ROWS * COLS;
+    private static final long BOTTOM_MASK = ((1L << (COLS * HEIGHT)) - 1) / ((1L << HEIGHT) - 1);
+    private static final long BOARD_MASK = BOTTOM_MASK * ((1L << ROWS) - 1);
+    private static final int MIN_SCORE = -CELLS / 2 + 3;
+    private static final int[] COLUMN_ORDER = { 3, 2, 4, 1, 5, 0, 6 }; // Center first
+    private static final int BYTES_PER_ENTRY = Integer.BYTES + 1;
+    private static final int TIME_CHECK_INTERVAL_MASK = 1024 - 1;
+ 
+    // Table of upper bounds. The key (current + mask) has 49 bits; storing its low 32 bits
+    // in a table with a prime number of slots (> 2^17) identifies it exactly
+    private final int[] keys;
+    private final byte[] values;
+    private final long[][] moveBuffers = new long[CELLS + 1][COLS]; // One per ply
+    private final int[][] scoreBuffers = new int[CELLS + 1][COLS];
+    private long deadlineNanos;
+    private boolean aborted;
+    private long nodes;
+    private int lastScore;
+ 
+    /**
+     * @param sizeMb Memory budget of the solver's table in megabytes.
+     */
+    public EndgameSolver(int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Solver table size must be positive: " + sizeMb);
+        }
+        int entries = (int) previousPrime(Math.min((long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY, 1L << 30));
+        this.keys = new int[entries];
+        this.values = new byte[entries];
+    }
+ 
+    /**
+     * Finds a best move: the fastest win, the slowest loss, or a drawing move.
+     * Ties go to the column nearest the center.
+     * @param board The position; must not be won already.
+     * @param player The side to move.
+     * @param deadlineNanos System.nanoTime() after which to give up, or Long.MAX_VALUE.
+     * @return The column, -1 if there is no legal move, or ABORTED if the deadline passed
+     *         or the thread was interrupted. The score is available from getLastScore().
+     */
+    public int bestMove(BitBoard board, int player, long deadlineNanos) {
+        long current = board.getPieces(player);
+        long mask = board.getPieces(Board.PLAYER_1) | board.getPieces(Board.PLAYER_2);
+        int moveCount = board.getMoveCount();
+        this.deadlineNanos = deadlineNanos;
+        this.aborted = false;
+        this.nodes = 0;
+ 
+        long possible = (mask + BOTTOM_MASK) & BOARD_MASK;
+        if (possible == 0) {
+            return -1;
+        }
+        long winning = winningCells(current, mask) & possible;
+        if (winning != 0) {
+            lastScore = (CELLS + 1 - moveCount) / 2;
+            return column(Long.lowestOneBit(winning));
+        }
+        int score = solve(current, mask, moveCount);
+        if (score == ABORTED) {
+            return ABORTED;
+        }
+ 
+        // A move is best if the opponent scores no more than -score after it
+        for (int col : COLUMN_ORDER) {
+            long move = possible & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            long childCurrent = current ^ mask;
+            long childMask = mask | move;
+            int childScore;
+            if ((winningCells(childCurrent, childMask) & ((childMask + BOTTOM_MASK) & BOARD_MASK)) != 0) {
+                childScore = (CELLS + 1 - (moveCount + 1)) / 2; // The opponent wins next move
+            } else if (moveCount + 1 == CELLS) {
+                childScore = 0;
+            } else {
+                // One null-window probe: is the opponent's score at most -score?
+                childScore = negamax(childCurrent, childMask, moveCount + 1, -score, -score + 1);
+            }
+            if (aborted) {
+                return ABORTED;
+            }
+            if (childScore <= -score) {
+                lastScore = score;
+                return col;
+            }
+        }
+        throw new IllegalStateException("No move reaches the solved score " + score);
+    }
+ 
+    /**
+     * Computes the exact score of a position, see the class comment.
+     * @return The score, or ABORTED.
+     */
+    public int solve(BitBoard board, int player, long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.aborted = false;
+        this.nodes = 0;
+        long current = board.getPieces(player);
+        long mask = board.getPieces(Board.PLAYER_1) | board.getPieces(Board.PLAYER_2);
+        long possible = (mask + BOTTOM_MASK) & BOARD_MASK;
+        if ((winningCells(current, mask) & possible) != 0) {
+            return (CELLS + 1 - board.getMoveCount()) / 2;
+        }
+        return solve(current, mask, board.getMoveCount());
+    }
+ 
+    // Bisects the score interval with null-window searches; the side to move cannot win at once
+    private int solve(long current, long mask, int moveCount) {
+        if (moveCount == CELLS) {
+            return 0;
+        }
+        int min = -(CELLS - moveCount) / 2;
+        int max = (CELLS + 1 - moveCount) / 2;
+        while (min < max) {
+            int med = min + (max - min) / 2;
+            // Probe closer to 0 first: most positions are close to a draw
+            if (med <= 0 && min / 2 < med) {
+                med = min / 2;
+            } else if (med >= 0 && max / 2 > med) {
+                med = max / 2;
+            }
+            int r = negamax(current, mask, moveCount, med, med + 1);
+            if (aborted) {
+                return ABORTED;
+            }
+            if (r <= med) {
+                max = r;
+            } else {
+                min = r;
+            }
+        }
+        return min;
+    }
+ 
+    /**
+     * Alpha-beta negamax for a position where the side to move cannot win immediately.
+     * @param current Stones of the side to move.
+     * @param mask All stones.
+     * @return A score s with: s <= alpha means the true score is at most s, s >= beta at
+     *         least s, and anything in between is exact.
+     */
+    private int negamax(long current, long mask, int moveCount, int alpha, int beta) {
+        if ((++nodes & TIME_CHECK_INTERVAL_MASK) == 0
+                && (System.nanoTime() > deadlineNanos || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+ 
+        long next = nonLosingMoves(current, mask);
+        if (next == 0) {
+            return -(CELLS - moveCount) / 2; // Every move lets the opponent win next
+        }
+        if (moveCount >= CELLS - 2) {
+            return 0; // Neither side can win with the last two stones
+        }
+ 
+        // The opponent cannot win next move, so the score is at least this
+        int min = -(CELLS - 2 - moveCount) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        // Nor can we win at once, so it is at most this, or what the table says
+        int max = (CELLS - 1 - moveCount) / 2;
+        long key = current + mask;
+        int index = (int) (key % keys.length);
+        if (keys[index] == (int) key && values[index] != 0) {
+            max = values[index] + MIN_SCORE - 1;
+        }
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+ 
+        // Order moves by how many winning cells they create, center first among equals
+        int ply = moveCount;
+        long[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = 0;
+        for (int i = COLS - 1; i >= 0; i--) {
+            long move = next & columnMask(COLUMN_ORDER[i]);
+            if (move == 0) {
+                continue;
+            }
+            int score = Long.bitCount(winningCells(current | move, mask));
+            int j = count++;
+            while (j > 0 && scores[j - 1] > score) {
+                moves[j] = moves[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            moves[j] = move;
+            scores[j] = score;
+        }
+ 
+        for (int i = count - 1; i >= 0; i--) {
+            long childMask = mask | moves[i];
+            int score = -negamax(current ^ mask, childMask, moveCount + 1, -beta, -alpha);
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+ 
+        keys[index] = (int) key;
+        values[index] = (byte) (alpha - MIN_SCORE + 1);
+        return alpha;
+    }
+ 
+    // Playable cells that do not hand the opponent an immediate win; 0 if none exist
+    private static long nonLosingMoves(long current, long mask) {
+        long possible = (mask + BOTTOM_MASK) & BOARD_MASK;
+        long opponentWins = winningCells(current ^ mask, mask);
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return 0; // Two threats at once cannot both be blocked
+            }
+            possible = forced;
+        }
+        return possible & ~(opponentWins >>> 1); // Never play directly below an opponent's win
+    }
+ 
+    // Empty cells that would complete four for the owner of position
+    private static long winningCells(long position, long mask) {
+        // Vertical
+        long r = (position << 1) & (position << 2) & (position << 3);
+        // Horizontal and both diagonals
+        r |= lineCompletions(position, HEIGHT);
+        r |= lineCompletions(position, HEIGHT - 1);
+        r |= lineCompletions(position, HEIGHT + 1);
+        return r & (BOARD_MASK ^ mask);
+    }
+ 
+    private static long lineCompletions(long position, int shift) {
+        long p = (position << shift) & (position << 2 * shift);
+        long r = p & (position << 3 * shift);
+        r |= p & (position >>> shift);
+        p = (position >>> shift) & (position >>> 2 * shift);
+        r |= p & (position << shift);
+        r |= p & (position >>> 3 * shift);
+        return r;
+    }
+ 
+    private static long columnMask(int col) {
+        return ((1L << ROWS) - 1) << (col * HEIGHT);
+    }
+ 
+    private static int column(long move) {
+        return Long.numberOfTrailingZeros(move) / HEIGHT;
+    }
+ 
+    private static long previousPrime(long n) {
+        for (long candidate = n; ; candidate--) {
+            boolean prime = candidate > 1;
+            for (long d = 2; d * d <= candidate && prime; d++) {
+                prime = candidate % d != 0;
+            }
+            if (prime) {
+                return candidate;
+            }
+        }
+    }
+ 
+    /**
+     * Forgets all cached results.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, (byte) 0);
+    }
+ 
+    /**
+     * @return The score of the position given to the last successful bestMove call.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+ 
+    /**
+     * @return Nodes searched by the last bestMove or solve call.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
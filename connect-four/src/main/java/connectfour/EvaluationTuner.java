@@ -0,0 +1,418 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+ 
+/**
+* Command-line tool that fits MinimaxAI's evaluation weights to game results (Texel's method).
+*
+* 1. Positions: engines with the current weights (EvaluationWeights.configured()) play each
+*    other in parallel from random openings, with an occasional random move for variety.
+*    Every quiet position (no side can win on the next ply) is kept as its evaluation
+*    features plus the final result, in flat byte arrays.
+* 2. Fit: a position's expected result is modeled as sigmoid(k * evaluation). k is fitted to
+*    the current weights, then the weights are fitted by gradient descent on the mean squared
+*    error, rounded to integers at the given scale (the search only compares scores, so
+*    scaled weights play alike) and polished by a local search in steps of one. Error and
+*    gradient are summed over slices of the positions in parallel.
+* 3. Match: the fitted weights play the current ones in pairs of games from the same random
+*    opening with colors swapped; the score and Elo difference are reported.
+*
+* The fitted weights are written to the output file, which new engines load when it is the
+* working directory's evaluation-weights.txt (the default) or is named by -Dconnectfour.weights.
+* The endgame solver is off in all games, so every move is decided by the evaluation.
+*
+* Usage: java -cp connect-four.jar connectfour.EvaluationTuner [games] [depth] [matchGames] [matchDepth]
+*                                  [output] [threads] [scale] [seed]
+*/
+public class EvaluationTuner {
+    private static final int OPENING_PLIES = 4;
+    private static final double RANDOM_MOVE_RATE = 0.1; // Per searched move while generating positions
+    private static final int MAX_DESCENT_STEPS = 2000;
+    private static final int NEW = 0;
+    private static final int OLD = 1;
+    private static final int DRAW = 2;
+ 
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int matchGames = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int matchDepth = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        Path output = Paths.get(args.length > 4 ? args[4] : "evaluation-weights.txt");
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        int scale = args.length > 6 ? Integer.parseInt(args[6]) : 4;
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 1L;
+ 
+        EvaluationWeights oldWeights = EvaluationWeights.configured();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            Dataset data = generate(pool, threads, games, depth, oldWeights, seed);
+            System.out.printf("positions=%d from %d games at depth %d (%.1f s)%n", data.size, games, depth,
+                    seconds(start));
+ 
+            start = System.nanoTime();
+            Fitter fitter = new Fitter(data, pool, threads);
+            double[] old = toDoubles(oldWeights.toArray());
+            double k = fitter.fitScale(old);
+            double oldError = fitter.error(old, k, null);
+            double[] fitted = fitter.descend(old, k);
+            int[] rounded = new int[EvaluationWeights.COUNT];
+            for (int i = 0; i < rounded.length; i++) {
+                rounded[i] = (int) Math.round(fitted[i] * scale);
+            }
+            int[] tuned = fitter.localSearch(rounded, k / scale);
+            EvaluationWeights newWeights = EvaluationWeights.fromArray(tuned);
+            double newError = fitter.error(toDoubles(tuned), k / scale, null);
+            System.out.printf("k=%.5f old %s error=%.6f%n", k, oldWeights, oldError);
+            System.out.printf("fitted %s error=%.6f (%.1f s)%n", newWeights, newError, seconds(start));
+ 
+            start = System.nanoTime();
+            int[] results = match(pool, matchGames, matchDepth, newWeights, oldWeights, seed);
+            double score = (results[NEW] + 0.5 * results[DRAW]) / matchGames;
+            double variance = (results[NEW] * Math.pow(1 - score, 2) + results[OLD] * Math.pow(score, 2)
+                    + results[DRAW] * Math.pow(0.5 - score, 2)) / matchGames;
+            double margin = 1.96 * Math.sqrt(variance / matchGames);
+            System.out.printf("match at depth %d: new-wins=%d old-wins=%d draws=%d score=%.1f%% +- %.1f%% "
+                    + "elo=%+.0f (%.1f s)%n", matchDepth, results[NEW], results[OLD], results[DRAW],
+                    100 * score, 100 * margin, elo(score), seconds(start));
+ 
+            newWeights.save(output, String.format("EvaluationTuner: %d games at depth %d, %d positions, "
+                    + "error %.6f -> %.6f, match score %.1f%% against %s", games, depth, data.size, oldError,
+                    newError, 100 * score, oldWeights));
+            System.out.println("wrote " + output);
+        } finally {
+            pool.shutdown();
+        }
+    }
+ 
+    // Plays the games on all threads, each thread with its own engines and its own slice of positions
+    private static Dataset generate(ExecutorService pool, int threads, int games, int depth,
+                                    EvaluationWeights weights, long seed)
+            throws InterruptedException, ExecutionException {
+        List<Future<Dataset>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            parts.add(pool.submit(() -> {
+                MinimaxAI[] engines = { createEngine(depth, weights), createEngine(depth, weights) };
+                Dataset part = new Dataset();
+                for (int game = thread; game < games; game += threads) {
+                    playGame(engines[0], engines[1], new Random(seed + game), RANDOM_MOVE_RATE, part);
+                }
+                return part;
+            }));
+        }
+        Dataset data = new Dataset();
+        for (Future<Dataset> part : parts) {
+            data.addAll(part.get());
+        }
+        return data;
+    }
+ 
+    // Even games let the new weights move first, odd games replay the same opening with the old ones first
+    private static int[] match(ExecutorService pool, int games, int depth, EvaluationWeights newWeights,
+                               EvaluationWeights oldWeights, long seed)
+            throws InterruptedException, ExecutionException {
+        AtomicIntegerArray results = new AtomicIntegerArray(3);
+        ThreadLocal<MinimaxAI[]> engines = ThreadLocal.withInitial(
+                () -> new MinimaxAI[] { createEngine(depth, newWeights), createEngine(depth, oldWeights) });
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            int game = i;
+            tasks.add(pool.submit(() -> {
+                MinimaxAI[] pair = engines.get();
+                int first = game % 2 == 0 ? NEW : OLD;
+                int winner = playGame(pair[first], pair[1 - first], new Random(~seed - game / 2), 0, null);
+                if (winner == Board.EMPTY) {
+                    results.incrementAndGet(DRAW);
+                } else {
+                    results.incrementAndGet(winner == Board.PLAYER_1 ? first : 1 - first);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        return new int[] { results.get(NEW), results.get(OLD), results.get(DRAW) };
+    }
+ 
+    private static MinimaxAI createEngine(int depth, EvaluationWeights weights) {
+        MinimaxAI engine = new MinimaxAI(depth);
+        engine.setEvaluationWeights(weights);
+        engine.setEndgameThreshold(0);
+        return engine;
+    }
+ 
+    /**
+     * Plays one game after OPENING_PLIES random moves; each later move is random with the given rate.
+     * A side that can win on the spot always searches, so it takes the win.
+     * @param positions Receives the quiet positions with the game's result, or null.
+     * @return The winning player, or Board.EMPTY for a draw.
+     */
+    private static int playGame(MinimaxAI first, MinimaxAI second, Random random, double randomMoveRate,
+                                Dataset positions) {
+        first.setPlayer(Board.PLAYER_1);
+        second.setPlayer(Board.PLAYER_2);
+        first.clearTranspositionTable();
+        second.clearTranspositionTable();
+ 
+        Board board = new Board();
+        BitBoard bitBoard = new BitBoard(); // Mirrors board for win checks and features
+        Dataset game = positions == null ? null : new Dataset();
+        int[] features = new int[EvaluationWeights.COUNT];
+        for (int ply = 0; ply < Board.ROWS * Board.COLS; ply++) {
+            int player = ply % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+            MinimaxAI engine = player == Board.PLAYER_1 ? first : second;
+            int col;
+            boolean canWin = (bitBoard.getThreatMask(player) & bitBoard.getPlayableMask()) != 0;
+            if (!canWin && (ply < OPENING_PLIES || random.nextDouble() < randomMoveRate)) {
+                col = SelfPlayRunner.randomMove(bitBoard, player, random);
+            } else {
+                if (game != null && isQuiet(bitBoard, player)) {
+                    MinimaxAI.evaluationFeatures(bitBoard, features);
+                    if (dot(engine.getEvaluationWeights().toArray(), features) != engine.evaluate(bitBoard)) {
+                        throw new IllegalStateException("evaluationFeatures is out of step with evaluate");
+                    }
+                    game.add(features, 0);
+                }
+                col = engine.findBestMove(board).getColumn();
+            }
+            board.makeMove(col, player);
+            bitBoard.makeMove(col, player);
+            if (bitBoard.checkWin(player)) {
+                if (game != null) {
+                    positions.addAll(game.withResult(player));
+                }
+                return player;
+            }
+        }
+        if (game != null) {
+            positions.addAll(game.withResult(Board.EMPTY));
+        }
+        return Board.EMPTY;
+    }
+ 
+    // Positions where a side can win on the next ply are decided by the search, not the evaluation
+    private static boolean isQuiet(BitBoard board, int player) {
+        long playable = board.getPlayableMask();
+        return ((board.getThreatMask(player) | board.getThreatMask(3 - player)) & playable) == 0;
+    }
+ 
+    private static int dot(int[] weights, int[] features) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i] * features[i];
+        }
+        return sum;
+    }
+ 
+    private static double[] toDoubles(int[] values) {
+        return Arrays.stream(values).asDoubleStream().toArray();
+    }
+ 
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+ 
+    private static double elo(double score) {
+        if (score <= 0 || score >= 1) {
+            return score <= 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+ 
+    /**
+     * Positions as flat primitive arrays: EvaluationWeights.COUNT feature bytes each (Player 2's
+     * count minus Player 1's, see MinimaxAI.evaluationFeatures) and one result byte each,
+     * 0 when Player 1 won, 1 for a draw and 2 when Player 2 won.
+     */
+    private static final class Dataset {
+        private byte[] features = new byte[1024 * EvaluationWeights.COUNT];
+        private byte[] results = new byte[1024];
+        private int size;
+ 
+        void add(int[] values, int result) {
+            if (size == results.length) {
+                features = Arrays.copyOf(features, 2 * features.length);
+                results = Arrays.copyOf(results, 2 * results.length);
+            }
+            for (int i = 0; i < EvaluationWeights.COUNT; i++) {
+                if (values[i] != (byte) values[i]) {
+                    throw new IllegalStateException("Feature out of byte range: " + values[i]);
+                }
+                features[size * EvaluationWeights.COUNT + i] = (byte) values[i];
+            }
+            results[size++] = (byte) result;
+        }
+ 
+        void addAll(Dataset other) {
+            int needed = size + other.size;
+            if (needed > results.length) {
+                int capacity = Math.max(needed, 2 * results.length);
+                features = Arrays.copyOf(features, capacity * EvaluationWeights.COUNT);
+                results = Arrays.copyOf(results, capacity);
+            }
+            System.arraycopy(other.features, 0, features, size * EvaluationWeights.COUNT,
+                    other.size * EvaluationWeights.COUNT);
+            System.arraycopy(other.results, 0, results, size, other.size);
+            size = needed;
+        }
+ 
+        // Sets every position's result from the winning player (Board.EMPTY for a draw)
+        Dataset withResult(int winner) {
+            byte result = (byte) (winner == Board.PLAYER_1 ? 0 : winner == Board.PLAYER_2 ? 2 : 1);
+            Arrays.fill(results, 0, size, result);
+            return this;
+        }
+    }
+ 
+    // Error and gradient of sigmoid(k * weights . features) against the results, summed in parallel slices
+    private static final class Fitter {
+        private final Dataset data;
+        private final ExecutorService pool;
+        private final int slices;
+ 
+        Fitter(Dataset data, ExecutorService pool, int slices) {
+            this.data = data;
+            this.pool = pool;
+            this.slices = slices;
+        }
+ 
+        /**
+         * @param gradient Receives the gradient of the error by the weights, or null.
+         * @return The mean squared error of the predicted results.
+         */
+        double error(double[] weights, double k, double[] gradient) throws InterruptedException, ExecutionException {
+            List<Callable<double[]>> tasks = new ArrayList<>();
+            for (int s = 0; s < slices; s++) {
+                int from = (int) ((long) data.size * s / slices);
+                int to = (int) ((long) data.size * (s + 1) / slices);
+                tasks.add(() -> sum(weights, k, from, to, gradient != null));
+            }
+            double[] total = new double[EvaluationWeights.COUNT + 1];
+            for (Future<double[]> part : pool.invokeAll(tasks)) {
+                double[] sums = part.get();
+                for (int i = 0; i < total.length; i++) {
+                    total[i] += sums[i];
+                }
+            }
+            if (gradient != null) {
+                for (int i = 0; i < EvaluationWeights.COUNT; i++) {
+                    gradient[i] = total[i + 1] / data.size;
+                }
+            }
+            return total[0] / data.size;
+        }
+ 
+        // Squared error in [0], gradient terms in [1..COUNT]
+        private double[] sum(double[] weights, double k, int from, int to, boolean withGradient) {
+            double[] sums = new double[EvaluationWeights.COUNT + 1];
+            byte[] features = data.features;
+            byte[] results = data.results;
+            for (int p = from; p < to; p++) {
+                int base = p * EvaluationWeights.COUNT;
+                double evaluation = 0;
+                for (int i = 0; i < EvaluationWeights.COUNT; i++) {
+                    evaluation += weights[i] * features[base + i];
+                }
+                double predicted = 1 / (1 + Math.exp(-k * evaluation));
+                double difference = predicted - results[p] * 0.5;
+                sums[0] += difference * difference;
+                if (withGradient) {
+                    double slope = 2 * difference * predicted * (1 - predicted) * k;
+                    for (int i = 0; i < EvaluationWeights.COUNT; i++) {
+                        sums[i + 1] += slope * features[base + i];
+                    }
+                }
+            }
+            return sums;
+        }
+ 
+        // Golden-section search for the k that fits the given weights best, on a log scale
+        double fitScale(double[] weights) throws InterruptedException, ExecutionException {
+            double ratio = (Math.sqrt(5) - 1) / 2;
+            double low = Math.log(1e-4);
+            double high = Math.log(10);
+            double a = high - ratio * (high - low);
+            double b = low + ratio * (high - low);
+            double errorA = error(weights, Math.exp(a), null);
+            double errorB = error(weights, Math.exp(b), null);
+            while (high - low > 1e-4) {
+                if (errorA < errorB) {
+                    high = b;
+                    b = a;
+                    errorB = errorA;
+                    a = high - ratio * (high - low);
+                    errorA = error(weights, Math.exp(a), null);
+                } else {
+                    low = a;
+                    a = b;
+                    errorA = errorB;
+                    b = low + ratio * (high - low);
+                    errorB = error(weights, Math.exp(b), null);
+                }
+            }
+            return Math.exp((low + high) / 2);
+        }
+ 
+        // Gradient descent with a step that grows after every improvement and halves after every miss
+        double[] descend(double[] start, double k) throws InterruptedException, ExecutionException {
+            double[] weights = start.clone();
+            double[] gradient = new double[EvaluationWeights.COUNT];
+            double current = error(weights, k, gradient);
+            double rate = 1;
+            for (int step = 0; step < MAX_DESCENT_STEPS && rate > 1e-6; step++) {
+                double[] next = weights.clone();
+                for (int i = 0; i < next.length; i++) {
+                    next[i] -= rate * gradient[i] / (k * k);
+                }
+                double[] nextGradient = new double[EvaluationWeights.COUNT];
+                double nextError = error(next, k, nextGradient);
+                if (nextError < current) {
+                    weights = next;
+                    gradient = nextGradient;
+                    current = nextError;
+                    rate *= 1.2;
+                } else {
+                    rate *= 0.5;
+                }
+            }
+            return weights;
+        }
+ 
+        // Texel's local search: move single weights by one while that lowers the error
+        int[] localSearch(int[] start, double k) throws InterruptedException, ExecutionException {
+            int[] weights = start.clone();
+            double best = error(toDoubles(weights), k, null);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int i = 0; i < weights.length; i++) {
+                    for (int delta : new int[] { 1, -1 }) {
+                        weights[i] += delta;
+                        double candidate = error(toDoubles(weights), k, null);
+                        if (candidate < best) {
+                            best = candidate;
+                            improved = true;
+                            break;
+                        }
+                        weights[i] -= delta;
+                    }
+                }
+            }
+            return weights;
+        }
+    }
+}
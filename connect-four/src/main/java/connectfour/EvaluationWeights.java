@@ -0,0 +1,157 @@
+package connectfour;
+ 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+ 
+/**
+* Immutable set of weights for MinimaxAI's evaluation function.
+* Each weight is applied symmetrically: the AI's count minus the human's count.
+*
+* Weights can be kept in a text file of name=value lines (as written by EvaluationTuner);
+* '#' starts a comment and weights that are not listed keep their DEFAULT value.
+*/
+public final class EvaluationWeights {
+    public static final EvaluationWeights DEFAULT = new EvaluationWeights(4, 1, 8, 2);
+    // Number of weights, in the order of toArray and MinimaxAI.evaluationFeatures
+    public static final int COUNT = 4;
+    private static final String[] NAMES = { "centerPiece", "openTwo", "openThree", "threat" };
+ 
+    // Where new engines look for tuned weights; override with -Dconnectfour.weights=<path>
+    private static final String WEIGHTS_PROPERTY = "connectfour.weights";
+    private static final String DEFAULT_WEIGHTS_FILE = "evaluation-weights.txt";
+ 
+    private final int centerPiece; // Per piece in the center column
+    private final int openTwo; // Per window with two own pieces and no opponent piece
+    private final int openThree; // Per window with three own pieces and no opponent piece
+    private final int threat; // Per empty cell that would complete a four
+ 
+    public EvaluationWeights(int centerPiece, int openTwo, int openThree, int threat) {
+        this.centerPiece = centerPiece;
+        this.openTwo = openTwo;
+        this.openThree = openThree;
+        this.threat = threat;
+    }
+ 
+    /**
+     * @param weights COUNT weights in the order of toArray.
+     */
+    public static EvaluationWeights fromArray(int[] weights) {
+        if (weights.length != COUNT) {
+            throw new IllegalArgumentException("Expected " + COUNT + " weights, got " + weights.length);
+        }
+        return new EvaluationWeights(weights[0], weights[1], weights[2], weights[3]);
+    }
+ 
+    /**
+     * @return centerPiece, openTwo, openThree and threat, in that order.
+     */
+    public int[] toArray() {
+        return new int[] { centerPiece, openTwo, openThree, threat };
+    }
+ 
+    /**
+     * The weights new MinimaxAI instances start with: those in the file named by
+     * -Dconnectfour.weights, or evaluation-weights.txt, read once per process.
+     * @return The configured weights, or DEFAULT if there is no file or it cannot be read.
+     */
+    public static EvaluationWeights configured() {
+        return Configured.WEIGHTS;
+    }
+ 
+    // Loaded on first use, so processes that never create an engine never touch the file
+    private static final class Configured {
+        static final EvaluationWeights WEIGHTS = loadConfigured();
+ 
+        private static EvaluationWeights loadConfigured() {
+            Path file = Paths.get(System.getProperty(WEIGHTS_PROPERTY, DEFAULT_WEIGHTS_FILE));
+            if (!Files.isRegularFile(file)) {
+                return DEFAULT;
+            }
+            try {
+                return load(file);
+            } catch (IOException e) {
+                System.err.println("Evaluation Weights Error: " + e.getMessage());
+                return DEFAULT;
+            }
+        }
+    }
+ 
+    /**
+     * Reads a weights file of name=value lines.
+     * @throws IOException if the file cannot be read or holds an unknown name or a bad value.
+     */
+    public static EvaluationWeights load(Path file) throws IOException {
+        int[] weights = DEFAULT.toArray();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int equals = line.indexOf('=');
+            int index = equals < 0 ? -1 : List.of(NAMES).indexOf(line.substring(0, equals).trim());
+            if (index < 0) {
+                throw new IOException(file + ":" + (i + 1) + ": expected <weight>=<value>, got \"" + line + "\"");
+            }
+            try {
+                weights[index] = Integer.parseInt(line.substring(equals + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + (i + 1) + ": not a number: \"" + line + "\"");
+            }
+        }
+        return fromArray(weights);
+    }
+ 
+    /**
+     * Writes the weights in the format load reads.
+     * @param comment Written as a comment line first, e.g. where the weights came from; may be null.
+     */
+    public void save(Path file, String comment) throws IOException {
+        int[] weights = toArray();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            if (comment != null) {
+                writer.write("# " + comment);
+                writer.newLine();
+            }
+            for (int i = 0; i < COUNT; i++) {
+                writer.write(NAMES[i] + "=" + weights[i]);
+                writer.newLine();
+            }
+        }
+    }
+ 
+    public int getCenterPiece() {
+        return centerPiece;
+    }
+ 
+    public int getOpenTwo() {
+        return openTwo;
+    }
+ 
+    public int getOpenThree() {
+        return openThree;
+    }
+ 
+    public int getThreat() {
+        return threat;
+    }
+ 
+    @Override
+    public String toString() {
+        return "EvaluationWeights{" +
+                "centerPiece=" + centerPiece +
+                ", openTwo=" + openTwo +
+                ", openThree=" + openThree +
+                ", threat=" + threat +
+                '}';
+    }
+}
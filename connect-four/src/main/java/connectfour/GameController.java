@@ -0,0 +1,486 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+ 
+/**
+* Manages the overall game flow, state, turns, and coordinates between the Board and AI.
+* The desktop constructor gives the controller its own AI and worker thread; the server
+* constructor lets many controllers share a pool of workers, each with its own AI.
+*
+* Threading: all game state is guarded by the controller's lock. AI searches run outside
+* it on a private copy of the board, and every search is tagged with the generation of
+* the game it was started for; resetGame starts a new generation and interrupts the
+* running search, so a result that arrives late is dropped instead of being played into
+* the new game. Callbacks receive copies of the board, never the live one, and are called
+* on whichever thread changed the game, the AI worker included; a UI has to hand them over
+* to its own thread.
+*/
+public class GameController {
+    // Where the opening book is looked for; override with -Dconnectfour.openingBook=<path>
+    private static final String OPENING_BOOK_PROPERTY = "connectfour.openingBook";
+    private static final String DEFAULT_OPENING_BOOK = "opening-book.bin";
+    // Where deep search results are kept across runs; no store unless -Dconnectfour.positionStore=<path> is given
+    private static final String POSITION_STORE_PROPERTY = "connectfour.positionStore";
+    private static final int POSITION_STORE_ENTRIES = 1 << 18;
+    private static final int POSITION_STORE_MIN_DEPTH = 8;
+    // Where played games are logged; no log unless -Dconnectfour.gameLog=<path> is given
+    private static final String GAME_LOG_PROPERTY = "connectfour.gameLog";
+ 
+    private static final int DEFAULT_DEPTH = 5;
+    // How long shutdown waits for a cancelled search to let go of the owned worker
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+ 
+    private Board board;
+    private int rows = Board.ROWS;
+    private int cols = Board.COLS;
+    private int connect = Board.CONNECT;
+    private int generation; // Bumped by resetGame; searches for an older game are discarded
+    private final MinimaxAI ownedAgent; // null when the AI is borrowed from a shared pool
+    private final PositionStore ownedStore; // Opened for ownedAgent, if configured
+    private final GameLogWriter ownedLog; // Opened by the desktop constructor, if configured
+    private GameLogWriter gameLog; // null to log nothing
+    // The current game as it will be logged: columns played and thinking time per ply
+    private byte[] movesPlayed;
+    private int[] moveMillis;
+    private int plies;
+    private long gameStartMillis;
+    private long turnStartNanos; // When the human's turn began
+    private final Supplier<MinimaxAI> aiAgents; // Called on the worker thread that runs the search
+    private int aiDepth = DEFAULT_DEPTH;
+    private Duration aiTimeBudget; // null means search to the fixed depth
+    private Duration aiMoveDelay = Duration.ofMillis(500);
+    // Written under the lock, read without it by the UI and request threads
+    private volatile int currentPlayer;
+    private volatile boolean gameActive;
+    private final Consumer<Board> boardUpdateCallback;
+    private final Consumer<String> messageCallback;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private boolean shutDown; // Set by shutdown; nothing is queued or logged after it
+    private Future<?> aiTask;
+    private boolean pondering;
+    private Future<?> ponderTask;
+    private final List<SearchStatsListener> statsListeners = new CopyOnWriteArrayList<>();
+ 
+    public GameController(Consumer<Board> boardUpdate, Consumer<String> messageUpdate) {
+        this.boardUpdateCallback = boardUpdate;
+        this.messageCallback = messageUpdate;
+        // Default difficulty/depth
+        this.ownedAgent = new MinimaxAI(DEFAULT_DEPTH);
+        // One core is left to the UI so it keeps drawing while the search runs
+        this.ownedAgent.setThreadCount(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        this.ownedAgent.setOpeningBook(loadOpeningBook());
+        this.ownedStore = openPositionStore();
+        this.ownedAgent.setPositionStore(ownedStore);
+        this.ownedLog = openGameLog();
+        this.gameLog = ownedLog;
+        this.aiAgents = () -> ownedAgent;
+        this.executor = Executors.newSingleThreadExecutor();
+        this.ownsExecutor = true;
+        resetGame();
+    }
+ 
+    /**
+     * Creates a controller whose AI turns run on a shared executor. Each search uses the
+     * MinimaxAI that aiAgents returns on the executing thread, so the supplier typically
+     * hands out one instance per worker thread. Shared instances keep their transposition
+     * tables across games, which is safe because entries are keyed by position alone.
+     * @param aiAgents Supplies the AI to search with; called on the executor's thread.
+     * @param executor Runs the AI turns; not shut down by this controller.
+     */
+    public GameController(Consumer<Board> boardUpdate, Consumer<String> messageUpdate,
+                          Supplier<MinimaxAI> aiAgents, ExecutorService executor) {
+        this.boardUpdateCallback = boardUpdate;
+        this.messageCallback = messageUpdate;
+        this.ownedAgent = null;
+        this.ownedStore = null;
+        this.ownedLog = null;
+        this.aiAgents = aiAgents;
+        this.executor = executor;
+        this.ownsExecutor = false;
+        resetGame();
+    }
+ 
+    /**
+     * Opens the opening book named by -Dconnectfour.openingBook, or opening-book.bin.
+     * The book is optional: without one the AI simply searches every move.
+     * @return The book, or null if there is none or it cannot be read.
+     */
+    public static OpeningBook loadOpeningBook() {
+        Path bookFile = Paths.get(System.getProperty(OPENING_BOOK_PROPERTY, DEFAULT_OPENING_BOOK));
+        if (!Files.isRegularFile(bookFile)) {
+            return null;
+        }
+        try {
+            return OpeningBook.open(bookFile);
+        } catch (IOException e) {
+            System.err.println("Opening Book Error: " + e.getMessage());
+            return null;
+        }
+    }
+ 
+    /**
+     * Opens the position store named by -Dconnectfour.positionStore, creating the file if needed.
+     * The store is optional: without one every run starts from an empty transposition table.
+     * @return The store, or null if none is configured or it cannot be opened.
+     */
+    public static PositionStore openPositionStore() {
+        String storeFile = System.getProperty(POSITION_STORE_PROPERTY);
+        if (storeFile == null) {
+            return null;
+        }
+        try {
+            return PositionStore.open(Paths.get(storeFile), POSITION_STORE_ENTRIES, POSITION_STORE_MIN_DEPTH);
+        } catch (IOException e) {
+            System.err.println("Position Store Error: " + e.getMessage());
+            return null;
+        }
+    }
+ 
+    /**
+     * Opens the game log named by -Dconnectfour.gameLog, creating the file if needed.
+     * The log is optional: without one games are not recorded.
+     * @return The log, or null if none is configured or it cannot be opened.
+     */
+    public static GameLogWriter openGameLog() {
+        String logFile = System.getProperty(GAME_LOG_PROPERTY);
+        if (logFile == null) {
+            return null;
+        }
+        try {
+            return GameLogWriter.open(Paths.get(logFile));
+        } catch (IOException e) {
+            System.err.println("Game Log Error: " + e.getMessage());
+            return null;
+        }
+    }
+ 
+    /**
+     * Sets the log every game is appended to when it ends, or is reset or shut down
+     * unfinished; null logs nothing. The controller does not close it.
+     */
+    public synchronized void setGameLog(GameLogWriter gameLog) {
+        this.gameLog = gameLog;
+    }
+ 
+    public synchronized void resetGame() {
+        generation++;
+        cancelAITurn();
+        stopPondering();
+        if (gameActive) {
+            logGame(RecordedGame.UNFINISHED);
+        }
+        this.board = new Board(rows, cols, connect);
+        this.movesPlayed = new byte[rows * cols];
+        this.moveMillis = new int[rows * cols];
+        this.plies = 0;
+        this.gameStartMillis = System.currentTimeMillis();
+        this.turnStartNanos = System.nanoTime();
+        if (ownedAgent != null && !shutDown) {
+            // Queued behind the cancelled search on the single worker, so the tables are never
+            // cleared under a search that has not yet seen its interrupt
+            executor.submit(ownedAgent::clearTranspositionTable); // Only the position store's scores carry over
+        }
+        this.currentPlayer = Board.PLAYER_1; // Human starts
+        this.gameActive = true;
+        publishBoard();
+        this.messageCallback.accept("Game started! Your turn (Player 1).");
+    }
+ 
+    /**
+     * Switches to a board of another size or connect length and starts a new game on it.
+     * The standard game is Board.ROWS x Board.COLS with Board.CONNECT in a row.
+     * @throws IllegalArgumentException if Board does not support the size.
+     */
+    public synchronized void setVariant(int rows, int cols, int connect) {
+        new Board(rows, cols, connect); // Validates before anything changes
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        resetGame();
+    }
+ 
+    public synchronized void setAIDifficulty(int depth) {
+        this.aiDepth = depth;
+        this.messageCallback.accept("AI Difficulty set to Depth: " + depth);
+    }
+ 
+    /**
+     * Switches the AI to iterative deepening with a per-move time budget.
+     * @param budget Time allowed per AI move, or null to go back to the fixed search depth.
+     */
+    public synchronized void setAITimeBudget(Duration budget) {
+        this.aiTimeBudget = budget;
+        if (budget == null) {
+            this.messageCallback.accept("AI time limit off, using fixed depth.");
+        } else {
+            this.messageCallback.accept("AI time limit set to " + budget.toMillis() + " ms per move.");
+        }
+    }
+ 
+    /**
+     * Sets the pause between finding the AI's move and playing it. Defaults to 500 ms.
+     * @param delay The pause; Duration.ZERO plays the move as soon as it is found.
+     */
+    public synchronized void setAIMoveDelay(Duration delay) {
+        this.aiMoveDelay = delay;
+    }
+ 
+    /**
+     * Lets the AI keep searching on the human's time, see MinimaxAI.ponder. The work is
+     * kept in the transposition table, so the reply to the human's actual move is found
+     * mostly there. Pondering occupies an AI worker until the human moves, so it is
+     * meant for controllers that own their executor.
+     */
+    public synchronized void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            stopPondering();
+        }
+    }
+ 
+    /**
+     * Registers a listener that receives the statistics of every AI search.
+     * Listeners are called on the AI worker thread, after the search and before the move is played.
+     */
+    public void addSearchStatsListener(SearchStatsListener listener) {
+        statsListeners.add(listener);
+    }
+ 
+    public void removeSearchStatsListener(SearchStatsListener listener) {
+        statsListeners.remove(listener);
+    }
+ 
+    /**
+     * Handles a human move initiated from the GUI.
+     * @param col The column index chosen by the human.
+     */
+    public synchronized void handleHumanMove(int col) {
+        if (!gameActive || currentPlayer != Board.PLAYER_1) {
+            messageCallback.accept("It's not your turn or the game is over.");
+            return;
+        }
+ 
+        if (board.makeMove(col, Board.PLAYER_1)) {
+            recordMove(col, System.nanoTime() - turnStartNanos);
+            publishBoard();
+            checkGameStatus(Board.PLAYER_1);
+ 
+            if (gameActive) {
+                stopPondering(); // Frees the worker; what it found stays in the table
+                currentPlayer = Board.PLAYER_2;
+                messageCallback.accept("AI is thinking...");
+                startAITurn();
+            }
+        } else {
+            messageCallback.accept("Invalid move. Column is full.");
+        }
+    }
+ 
+    // Called with the lock held: everything the search needs is captured here, not read later
+    private void startAITurn() {
+        if (shutDown) {
+            return; // An owned worker would reject the task; a shared one must not run it
+        }
+        Board snapshot = new Board(board);
+        int searchGeneration = generation;
+        int depth = aiDepth;
+        Duration budget = aiTimeBudget;
+        Duration delay = aiMoveDelay;
+        // Use the ExecutorService to run the computationally heavy AI task asynchronously
+        aiTask = executor.submit(() -> runAITurn(snapshot, searchGeneration, depth, budget, delay));
+    }
+ 
+    private void runAITurn(Board snapshot, int searchGeneration, int depth, Duration budget, Duration delay) {
+        try {
+            // Find the best move using Minimax
+            MinimaxAI aiAgent = aiAgents.get();
+            aiAgent.setSearchDepth(depth);
+            long searchStart = System.nanoTime();
+            Move aiMove = (budget != null) ? aiAgent.findBestMove(snapshot, budget) : aiAgent.findBestMove(snapshot);
+            long thinkNanos = System.nanoTime() - searchStart;
+            if (Thread.currentThread().isInterrupted() || !isCurrentGeneration(searchGeneration)) {
+                return; // Cancelled, or the game was reset while searching
+            }
+            SearchStats stats = aiAgent.getLastSearchStats();
+            for (SearchStatsListener listener : statsListeners) {
+                listener.onSearchCompleted(stats);
+            }
+ 
+            if (aiMove != null) {
+                // Simulate a delay for dramatic effect
+                Thread.sleep(delay.toMillis());
+            }
+            playAIMove(aiMove, searchGeneration, thinkNanos);
+        } catch (InterruptedException e) {
+            // Cancelled during the delay; the move is not played
+        } catch (Exception e) {
+            System.err.println("AI Search Error: " + e.getMessage());
+            if (isCurrentGeneration(searchGeneration)) {
+                messageCallback.accept("AI encountered an error. Resetting...");
+                resetGame();
+            }
+        }
+    }
+ 
+    private synchronized boolean isCurrentGeneration(int searchGeneration) {
+        return searchGeneration == generation;
+    }
+ 
+    private synchronized void playAIMove(Move aiMove, int searchGeneration, long thinkNanos) {
+        if (searchGeneration != generation) {
+            return; // A stale result must never touch the new game
+        }
+        if (aiMove == null) {
+            // Should only happen if the board was full
+            checkGameStatus(Board.PLAYER_2);
+            return;
+        }
+        if (board.makeMove(aiMove.getColumn(), Board.PLAYER_2)) {
+            recordMove(aiMove.getColumn(), thinkNanos);
+            publishBoard();
+            checkGameStatus(Board.PLAYER_2);
+ 
+            if (gameActive) {
+                // Queued before the turn passes, so the human's move always finds it to cancel
+                if (pondering) {
+                    startPondering(new Board(board));
+                }
+                currentPlayer = Board.PLAYER_1;
+                turnStartNanos = System.nanoTime();
+                messageCallback.accept("Your turn (Player 1).");
+            }
+        }
+    }
+ 
+    // Listeners get their own copy; the live board keeps changing under the lock
+    private void publishBoard() {
+        boardUpdateCallback.accept(new Board(board));
+    }
+ 
+    private void recordMove(int col, long thinkNanos) {
+        movesPlayed[plies] = (byte) col;
+        moveMillis[plies] = (int) Math.min(Integer.MAX_VALUE, thinkNanos / 1_000_000);
+        plies++;
+    }
+ 
+    // Called with the lock held when a game ends or is abandoned; a log that fails only costs the record
+    private void logGame(int result) {
+        if (gameLog == null || plies == 0 || shutDown) {
+            return;
+        }
+        try {
+            gameLog.append(new RecordedGame(rows, cols, connect, result, gameStartMillis,
+                    Arrays.copyOf(movesPlayed, plies), Arrays.copyOf(moveMillis, plies)));
+        } catch (IOException e) {
+            System.err.println("Game Log Error: " + e.getMessage());
+        }
+    }
+ 
+    private void cancelAITurn() {
+        if (aiTask != null) {
+            aiTask.cancel(true); // The search checks for the interrupt every few nodes
+            aiTask = null;
+        }
+    }
+ 
+    private void startPondering(Board position) {
+        int depth = aiTimeBudget == null ? aiDepth : position.getRows() * position.getCols();
+        ponderTask = executor.submit(() -> aiAgents.get().ponder(position, depth));
+    }
+ 
+    private void stopPondering() {
+        Future<?> task = ponderTask;
+        if (task != null) {
+            task.cancel(true); // Pondering checks for the interrupt every few nodes
+            ponderTask = null;
+        }
+    }
+ 
+    private void checkGameStatus(int lastPlayer) {
+        if (board.checkWin(lastPlayer)) {
+            gameActive = false;
+            String winner = (lastPlayer == Board.PLAYER_1) ? "Human (Player 1)" : "AI (Player 2)";
+            logGame(lastPlayer == Board.PLAYER_1 ? RecordedGame.PLAYER_1_WON : RecordedGame.PLAYER_2_WON);
+            messageCallback.accept("Game Over! " + winner + " wins!");
+        } else if (board.isDraw()) {
+            gameActive = false;
+            logGame(RecordedGame.DRAW);
+            messageCallback.accept("Game Over! It's a draw!");
+        }
+    }
+ 
+    public boolean isGameActive() {
+        return gameActive;
+    }
+ 
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+ 
+    /**
+     * Cancels the AI and closes what this controller owns. An owned worker is drained first:
+     * the AI's helper threads are stopped on it, behind the cancelled search, and the store
+     * and the log are closed only once it has terminated. Afterwards the controller still
+     * accepts resets and moves, but starts no AI turns and logs no games.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            generation++;
+            stopPondering();
+            cancelAITurn();
+            if (gameActive) {
+                logGame(RecordedGame.UNFINISHED);
+                plies = 0; // Logged once, even if shut down again
+            }
+            shutDown = true;
+            if (ownsExecutor && !executor.isShutdown()) {
+                executor.submit(ownedAgent::shutdown);
+                executor.shutdown();
+            }
+        }
+        // Without the lock: the cancelled search takes it once more to find its game gone
+        if (ownsExecutor) {
+            awaitWorker();
+        }
+        if (ownedStore != null) {
+            try {
+                ownedStore.close(); // Writes out the last batch of results
+            } catch (IOException e) {
+                System.err.println("Position Store Error: " + e.getMessage());
+            }
+        }
+        if (ownedLog != null) {
+            try {
+                ownedLog.close(); // Writes out the buffered games
+            } catch (IOException e) {
+                System.err.println("Game Log Error: " + e.getMessage());
+            }
+        }
+    }
+ 
+    private void awaitWorker() {
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("AI Worker Error: still searching after " + SHUTDOWN_TIMEOUT_SECONDS + " s");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+ 
+/**
+* Command-line tool that replays a game log (see GameLogWriter) for offline analysis.
+* The main thread streams the games into a small bounded queue and every worker replays
+* them through a Board, checking that each move is legal and that the recorded result is
+* the one the moves lead to. With a depth above 0 each worker also searches every position
+* with its own single-threaded MinimaxAI (endgame solver off) and counts how often each
+* player's move was the one the search picked. Workers keep their own counters, summed at
+* the end, so memory stays constant however long the log is.
+*
+* Usage: java -cp connect-four.jar connectfour.GameLogAnalyzer [log] [depth] [threads]
+*/
+public class GameLogAnalyzer {
+    private static final int QUEUE_PER_THREAD = 64;
+    // Queued after the last game, once per worker
+    private static final RecordedGame END = new RecordedGame(Board.ROWS, Board.COLS, Board.CONNECT,
+            RecordedGame.UNFINISHED, 0, new byte[0], new int[0]);
+ 
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        Path log = Paths.get(args.length > 0 ? args[0] : "games.log");
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+ 
+        long start = System.nanoTime();
+        BlockingQueue<RecordedGame> queue = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Summary total = new Summary();
+        try {
+            List<Future<Summary>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> analyze(queue, depth)));
+            }
+            try (GameLogReader reader = GameLogReader.open(log)) {
+                for (RecordedGame game = reader.next(); game != null; game = reader.next()) {
+                    queue.put(game);
+                }
+            } finally {
+                for (int t = 0; t < threads; t++) {
+                    queue.put(END);
+                }
+            }
+            for (Future<Summary> worker : workers) {
+                total.add(worker.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+ 
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("games=%d plies=%d invalid=%d (%.1f s, %.0f games/s)%n", total.games, total.plies,
+                total.invalid, seconds, total.games / seconds);
+        System.out.printf("player1-wins=%d player2-wins=%d draws=%d unfinished=%d%n",
+                total.results[RecordedGame.PLAYER_1_WON], total.results[RecordedGame.PLAYER_2_WON],
+                total.results[RecordedGame.DRAW], total.results[RecordedGame.UNFINISHED]);
+        for (int side = 0; side < 2; side++) {
+            long moves = total.moves[side];
+            System.out.printf("player%d: moves=%d avg-ms=%.1f", side + 1, moves,
+                    moves == 0 ? 0 : (double) total.thinkMillis[side] / moves);
+            if (depth > 0) {
+                System.out.printf(" agrees-with-depth-%d=%.1f%%", depth,
+                        moves == 0 ? 0 : 100.0 * total.agreements[side] / moves);
+            }
+            System.out.println();
+        }
+    }
+ 
+    private static Summary analyze(BlockingQueue<RecordedGame> queue, int depth) throws InterruptedException {
+        Summary summary = new Summary();
+        MinimaxAI engine = depth > 0 ? new MinimaxAI(depth) : null;
+        if (engine != null) {
+            engine.setEndgameThreshold(0);
+        }
+        for (RecordedGame game = queue.take(); game != END; game = queue.take()) {
+            summary.games++;
+            try {
+                replay(game, engine, summary);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                summary.invalid++; // Unsupported board size, illegal move or wrong result
+            }
+        }
+        return summary;
+    }
+ 
+    private static void replay(RecordedGame game, MinimaxAI engine, Summary summary) {
+        Board board = game.replay(0);
+        int result = RecordedGame.UNFINISHED;
+        for (int ply = 0; ply < game.getPlies(); ply++) {
+            if (result != RecordedGame.UNFINISHED) {
+                throw new IllegalStateException("Move after the end of the game");
+            }
+            int player = ply % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+            int col = game.getMove(ply);
+            if (engine != null) {
+                engine.setPlayer(player);
+                Move best = engine.findBestMove(board);
+                if (best != null && best.getColumn() == col) {
+                    summary.agreements[player - 1]++;
+                }
+            }
+            if (!board.makeMove(col, player)) {
+                throw new IllegalStateException("Illegal move " + col + " at ply " + ply);
+            }
+            summary.moves[player - 1]++;
+            summary.thinkMillis[player - 1] += game.getMoveMillis(ply);
+            if (board.checkWin(player)) {
+                result = player == Board.PLAYER_1 ? RecordedGame.PLAYER_1_WON : RecordedGame.PLAYER_2_WON;
+            } else if (board.isDraw()) {
+                result = RecordedGame.DRAW;
+            }
+        }
+        if (result != game.getResult()) {
+            throw new IllegalStateException("Recorded result " + game.getResult() + ", replayed " + result);
+        }
+        summary.plies += game.getPlies();
+        summary.results[result]++;
+    }
+ 
+    // Counters of one worker; plain fields, summed after all workers are done
+    private static final class Summary {
+        long games;
+        long invalid;
+        long plies;
+        final long[] results = new long[RecordedGame.DRAW + 1];
+        final long[] moves = new long[2];
+        final long[] thinkMillis = new long[2];
+        final long[] agreements = new long[2];
+ 
+        void add(Summary other) {
+            games += other.games;
+            invalid += other.invalid;
+            plies += other.plies;
+            for (int i = 0; i < results.length; i++) {
+                results[i] += other.results[i];
+            }
+            for (int side = 0; side < 2; side++) {
+                moves[side] += other.moves[side];
+                thinkMillis[side] += other.thinkMillis[side];
+                agreements[side] += other.agreements[side];
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+ 
+/**
+* Streams the games of a log written by GameLogWriter, in order, through one fixed-size
+* buffer: memory use does not depend on the size of the log. A record cut off at the end
+* of the file (a crash while writing) ends the log. Not thread-safe.
+*/
+public final class GameLogReader implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 17; // Holds any record whole
+ 
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private boolean endOfFile;
+ 
+    private GameLogReader(FileChannel channel) {
+        this.channel = channel;
+        this.buffer.flip(); // Empty
+    }
+ 
+    /**
+     * @throws IOException if the file cannot be opened or is not a game log.
+     */
+    public static GameLogReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            checkHeader(channel);
+            return new GameLogReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+ 
+    // Leaves the channel positioned after the header
+    private static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GameLogWriter.HEADER_BYTES);
+        channel.position(0);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // Read until full or end of file
+        }
+        header.flip();
+        if (header.remaining() < GameLogWriter.HEADER_BYTES || header.getInt() != GameLogWriter.MAGIC) {
+            throw new IOException("Not a game log");
+        }
+        int version = header.getInt();
+        if (version != GameLogWriter.VERSION) {
+            throw new IOException("Not a version " + GameLogWriter.VERSION + " game log: " + version);
+        }
+    }
+ 
+    /**
+     * @return The length of the file up to the end of its last complete record.
+     * @throws IOException if the file is not a game log.
+     */
+    static long completeLength(FileChannel channel) throws IOException {
+        checkHeader(channel);
+        GameLogReader reader = new GameLogReader(channel);
+        long end = GameLogWriter.HEADER_BYTES;
+        while (reader.nextRecord()) {
+            int length = reader.buffer.getShort() & 0xFFFF;
+            reader.buffer.position(reader.buffer.position() + length);
+            end += 2 + length;
+        }
+        return end;
+    }
+ 
+    /**
+     * @return The next game, or null at the end of the log.
+     * @throws IOException if the file cannot be read or the record is corrupt.
+     */
+    public RecordedGame next() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+        int length = buffer.getShort() & 0xFFFF;
+        int end = buffer.position() + length;
+        int rows = buffer.get() & 0xFF;
+        int cols = buffer.get() & 0xFF;
+        int connect = buffer.get() & 0xFF;
+        int result = buffer.get() & 0xFF;
+        int plies = buffer.get() & 0xFF;
+        long startMillis = buffer.getLong();
+        int bits = GameLogWriter.moveBits(cols);
+        if (result > RecordedGame.DRAW || length < GameLogWriter.RECORD_HEADER_BYTES + (plies * bits + 7) / 8 + plies) {
+            throw new IOException("Corrupt game record");
+        }
+ 
+        byte[] moves = new byte[plies];
+        int packed = 0;
+        int packedBits = 0;
+        for (int ply = 0; ply < plies; ply++) {
+            if (packedBits < bits) {
+                packed |= (buffer.get() & 0xFF) << packedBits;
+                packedBits += 8;
+            }
+            moves[ply] = (byte) (packed & ((1 << bits) - 1));
+            packed >>>= bits;
+            packedBits -= bits;
+            if (moves[ply] >= cols) {
+                throw new IOException("Corrupt game record: column " + moves[ply]);
+            }
+        }
+        int[] moveMillis = new int[plies];
+        for (int ply = 0; ply < plies; ply++) {
+            int millis = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (buffer.position() >= end || shift > 28) {
+                    throw new IOException("Corrupt game record: bad time");
+                }
+                int b = buffer.get();
+                millis |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            moveMillis[ply] = millis;
+        }
+        buffer.position(end);
+        return new RecordedGame(rows, cols, connect, result, startMillis, moves, moveMillis);
+    }
+ 
+    // Makes sure the buffer holds the next record whole; false at the end or before a torn record
+    private boolean nextRecord() throws IOException {
+        if (!fill(2)) {
+            return false;
+        }
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        return fill(2 + length);
+    }
+ 
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+ 
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
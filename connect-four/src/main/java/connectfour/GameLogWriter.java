@@ -0,0 +1,188 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+ 
+/**
+* Appends RecordedGames to a binary game log. Games are encoded into a buffer and written
+* to the file in large appends: when the buffer is full, when the last write is more than
+* FLUSH_INTERVAL_MS old, on flush and on close, so a game costs no system call of its own.
+* A daemon thread writes out what is still buffered every FLUSH_INTERVAL_MS, so a game
+* reaches the file within that time even if no other game follows it.
+* Thread-safe; use one writer per file.
+*
+* A record cut off by a crash is dropped when the file is opened again, and reading stops
+* at one, so the log stays readable up to the last complete game.
+*
+* File layout (big-endian):
+*   int magic "C4GL", int version,
+*   then per game:
+*     u16 length of the rest of the record,
+*     u8 rows, u8 cols, u8 connect, u8 result, u8 plies, long start time (epoch ms),
+*     the moves packed low bits first, moveBits(cols) bits each (3 on the standard board),
+*     padded to a whole byte,
+*     the thinking time of every ply in milliseconds as an unsigned LEB128 varint.
+*/
+public final class GameLogWriter implements AutoCloseable {
+    static final int MAGIC = 0x4334474C; // "C4GL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 13; // rows .. start time, after the length
+    static final int MAX_RECORD_BYTES = 2 + 0xFFFF;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+ 
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long lastWriteMillis = System.currentTimeMillis();
+    private long gameCount;
+    private final Thread flusher;
+ 
+    private GameLogWriter(FileChannel channel) {
+        this.channel = channel;
+        this.flusher = new Thread(this::runFlusher, "game-log-flusher");
+        this.flusher.setDaemon(true);
+    }
+ 
+    /**
+     * Opens a game log for appending, creating it if needed.
+     * @throws IOException if the file cannot be opened or is not a game log.
+     */
+    public static GameLogWriter open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } else {
+                // Drop a record torn by a crash, or it would swallow the next one appended
+                channel.truncate(GameLogReader.completeLength(channel));
+            }
+            channel.position(channel.size());
+            GameLogWriter writer = new GameLogWriter(channel);
+            writer.flusher.start();
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+ 
+    /**
+     * @return Bits per move for a board with this many columns: 3 up to 8 columns, 4 beyond.
+     */
+    static int moveBits(int cols) {
+        return cols <= 8 ? 3 : 4;
+    }
+ 
+    public synchronized void append(RecordedGame game) throws IOException {
+        int plies = game.getPlies();
+        int bits = moveBits(game.getCols());
+        int length = RECORD_HEADER_BYTES + (plies * bits + 7) / 8;
+        for (int ply = 0; ply < plies; ply++) {
+            length += varintBytes(game.getMoveMillis(ply));
+        }
+        if (length > 0xFFFF || plies > 0xFF) {
+            throw new IllegalArgumentException("Game too long to log: " + plies + " plies");
+        }
+        if (buffer.remaining() < 2 + length) {
+            drain();
+        }
+ 
+        buffer.putShort((short) length);
+        buffer.put((byte) game.getRows()).put((byte) game.getCols()).put((byte) game.getConnect());
+        buffer.put((byte) game.getResult()).put((byte) plies).putLong(game.getStartMillis());
+        int packed = 0;
+        int packedBits = 0;
+        for (int ply = 0; ply < plies; ply++) {
+            packed |= game.getMove(ply) << packedBits;
+            packedBits += bits;
+            if (packedBits >= 8) {
+                buffer.put((byte) packed);
+                packed >>>= 8;
+                packedBits -= 8;
+            }
+        }
+        if (packedBits > 0) {
+            buffer.put((byte) packed);
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            int millis = game.getMoveMillis(ply);
+            while ((millis & ~0x7F) != 0) {
+                buffer.put((byte) (millis & 0x7F | 0x80));
+                millis >>>= 7;
+            }
+            buffer.put((byte) millis);
+        }
+        gameCount++;
+ 
+        if (System.currentTimeMillis() - lastWriteMillis > FLUSH_INTERVAL_MS) {
+            drain();
+        }
+    }
+ 
+    private static int varintBytes(int value) {
+        return value == 0 ? 1 : (38 - Integer.numberOfLeadingZeros(value)) / 7;
+    }
+ 
+    /**
+     * Writes out the buffered games.
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+ 
+    // Waits on this writer's monitor, so appends proceed in between; close() wakes it to exit
+    private synchronized void runFlusher() {
+        while (channel.isOpen()) {
+            try {
+                wait(FLUSH_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (channel.isOpen() && buffer.position() > 0) {
+                try {
+                    drain();
+                } catch (IOException e) {
+                    System.err.println("Game Log Error: " + e.getMessage());
+                    return; // Appends and close() still write, and report, on their own
+                }
+            }
+        }
+    }
+ 
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        lastWriteMillis = System.currentTimeMillis();
+    }
+ 
+    /**
+     * @return Games appended through this writer.
+     */
+    public synchronized long getGameCount() {
+        return gameCount;
+    }
+ 
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                drain();
+            } finally {
+                channel.close();
+                notifyAll(); // Lets the flusher exit
+            }
+        }
+    }
+}
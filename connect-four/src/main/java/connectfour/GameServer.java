@@ -0,0 +1,242 @@
+package connectfour;
+ 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+ 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+ 
+/**
+* Hosts many concurrent games behind a local HTTP API.
+* Request threads only validate and apply human moves, which never block, so a small
+* pool serves any number of sessions. AI searches run on one shared pool with a fixed
+* number of workers, each owning a single-threaded MinimaxAI; the pool's FIFO queue
+* serves sessions in the order their moves arrived, and since a session has at most one
+* AI turn outstanding no session can hold more than one place in it. Search cost is
+* bounded per session by capping the depth and time budget a client may ask for.
+* With -Dconnectfour.positionStore=<path> all workers record deep results into one
+* PositionStore and start from it, so popular lines are not solved again after a restart.
+* With -Dconnectfour.gameLog=<path> every session's game is appended to one game log.
+*
+* API (all responses are JSON):
+*   POST   /sessions?depth=6 or ?timeMs=200   create a game; &cols=9&rows=7&connect=5 for a variant
+*   GET    /sessions/{id}                     current state; poll until "turn" is 1 again
+*   POST   /sessions/{id}/move?col=3          play the human's move
+*   DELETE /sessions/{id}                     end the game
+*   GET    /stats                             sessions, queued and running AI searches
+*
+* Usage: java -cp connect-four.jar connectfour.GameServer [port] [aiWorkers] [maxDepth] [maxTimeMs]
+*/
+public class GameServer {
+    private static final int DEFAULT_DEPTH = 5;
+    private static final int HTTP_THREADS = 4;
+    private static final int AI_TT_SIZE_MB = 16;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+ 
+    private final HttpServer httpServer;
+    private final ThreadPoolExecutor aiPool;
+    private final ThreadLocal<MinimaxAI> aiAgents;
+    private final PositionStore positionStore; // null if none is configured
+    private final GameLogWriter gameLog; // null if none is configured
+    private final ScheduledExecutorService sweeper;
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final int maxDepth;
+    private final Duration maxBudget;
+ 
+    /**
+     * @param port Local port to listen on; 0 picks a free one.
+     * @param aiWorkers Number of AI searches that may run at the same time.
+     * @param maxDepth Deepest fixed depth a session may request.
+     * @param maxBudget Longest time per move a session may request.
+     */
+    public GameServer(int port, int aiWorkers, int maxDepth, Duration maxBudget) throws IOException {
+        this.maxDepth = maxDepth;
+        this.maxBudget = maxBudget;
+        OpeningBook book = GameController.loadOpeningBook();
+        this.positionStore = GameController.openPositionStore();
+        this.gameLog = GameController.openGameLog();
+        this.aiAgents = ThreadLocal.withInitial(() -> {
+            MinimaxAI ai = new MinimaxAI(DEFAULT_DEPTH, AI_TT_SIZE_MB);
+            ai.setOpeningBook(book);
+            ai.setPositionStore(positionStore);
+            return ai;
+        });
+        this.aiPool = new ThreadPoolExecutor(aiWorkers, aiWorkers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "ai-worker");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.httpServer.createContext("/sessions", this::handleSessions);
+        this.httpServer.createContext("/stats", this::handleStats);
+        this.httpServer.setExecutor(Executors.newFixedThreadPool(HTTP_THREADS));
+    }
+ 
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int aiWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Duration maxBudget = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 1000);
+        GameServer server = new GameServer(port, aiWorkers, maxDepth, maxBudget);
+        server.start();
+        System.out.printf("Listening on http://localhost:%d with %d AI workers%n", server.getPort(), aiWorkers);
+    }
+ 
+    public void start() {
+        httpServer.start();
+        long sweepMillis = IDLE_TIMEOUT.toMillis() / 10;
+        sweeper.scheduleWithFixedDelay(this::closeIdleSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+ 
+    public void stop() {
+        httpServer.stop(0);
+        sweeper.shutdownNow();
+        aiPool.shutdownNow();
+        ((ExecutorService) httpServer.getExecutor()).shutdownNow();
+        sessions.values().forEach(GameSession::close);
+        sessions.clear();
+        if (positionStore != null) {
+            try {
+                positionStore.close();
+            } catch (IOException e) {
+                System.err.println("Position Store Error: " + e.getMessage());
+            }
+        }
+        if (gameLog != null) {
+            try {
+                gameLog.close(); // After the sessions, which log their unfinished games
+            } catch (IOException e) {
+                System.err.println("Game Log Error: " + e.getMessage());
+            }
+        }
+    }
+ 
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+ 
+    private void closeIdleSessions() {
+        long cutoff = System.nanoTime() - IDLE_TIMEOUT.toNanos();
+        sessions.values().removeIf(session -> {
+            if (session.getLastAccessNanos() - cutoff < 0) {
+                session.close();
+                return true;
+            }
+            return false;
+        });
+    }
+ 
+    private void handleSessions(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            // "/sessions" -> [, sessions], "/sessions/7/move" -> [, sessions, 7, move]
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (path.length == 2 && method.equals("POST")) {
+                GameSession session = createSession(query);
+                respond(exchange, 201, session.toJson());
+                return;
+            }
+            GameSession session = path.length >= 3 ? sessions.get(Long.parseLong(path[2])) : null;
+            if (session == null) {
+                respond(exchange, 404, error("No such session"));
+            } else if (path.length == 3 && method.equals("GET")) {
+                session.touch();
+                respond(exchange, 200, session.toJson());
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                sessions.remove(session.getId());
+                session.close();
+                respond(exchange, 200, session.toJson());
+            } else if (path.length == 4 && path[3].equals("move") && method.equals("POST")) {
+                session.play(Integer.parseInt(query.getOrDefault("col", "-1")));
+                respond(exchange, 200, session.toJson());
+            } else {
+                respond(exchange, 405, error("Unsupported request"));
+            }
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, error("Malformed number: " + e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage() != null ? e.getMessage() : String.valueOf(e)));
+        } catch (RuntimeException e) {
+            // E.g. a session the sweeper closed mid-request; HttpServer would drop the exchange unanswered
+            System.err.println("Game Server Error: " + e);
+            respond(exchange, 500, error("Internal error: " + e));
+        }
+    }
+ 
+    private GameSession createSession(Map<String, String> query) {
+        int depth = Math.min(Integer.parseInt(query.getOrDefault("depth", String.valueOf(DEFAULT_DEPTH))), maxDepth);
+        Duration budget = null;
+        if (query.containsKey("timeMs")) {
+            Duration requested = Duration.ofMillis(Long.parseLong(query.get("timeMs")));
+            budget = requested.compareTo(maxBudget) > 0 ? maxBudget : requested;
+        }
+        int rows = Integer.parseInt(query.getOrDefault("rows", String.valueOf(Board.ROWS)));
+        int cols = Integer.parseInt(query.getOrDefault("cols", String.valueOf(Board.COLS)));
+        int connect = Integer.parseInt(query.getOrDefault("connect", String.valueOf(Board.CONNECT)));
+        long id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, aiAgents::get, aiPool, gameLog, Math.max(depth, 1), budget,
+                rows, cols, connect);
+        sessions.put(id, session);
+        return session;
+    }
+ 
+    private void handleStats(HttpExchange exchange) throws IOException {
+        String store = positionStore == null ? "" : ",\"storedPositions\":" + positionStore.size()
+                + ",\"storeRecords\":" + positionStore.getRecordCount()
+                + ",\"storeEvictions\":" + positionStore.getEvictions()
+                + ",\"storeDroppedWrites\":" + positionStore.getDroppedWrites();
+        String log = gameLog == null ? "" : ",\"loggedGames\":" + gameLog.getGameCount();
+        respond(exchange, 200, "{\"sessions\":" + sessions.size()
+                + ",\"aiQueued\":" + aiPool.getQueue().size()
+                + ",\"aiRunning\":" + aiPool.getActiveCount()
+                + ",\"aiCompleted\":" + aiPool.getCompletedTaskCount() + store + log + "}");
+    }
+ 
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+ 
+    // Null-safe: exception messages may be missing
+    private static String error(String message) {
+        return "{\"error\":\"" + String.valueOf(message).replace("\"", "'") + "\"}";
+    }
+ 
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
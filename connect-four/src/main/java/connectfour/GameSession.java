@@ -0,0 +1,104 @@
+package connectfour;
+ 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+ 
+/**
+* One game hosted by GameServer: a GameController plus the latest board and message it
+* reported, kept as immutable strings so any request thread can read them without
+* touching the board the AI worker is mutating.
+*/
+public final class GameSession {
+    private final long id;
+    private final GameController controller;
+    private final int rows;
+    private final int cols;
+    private final int connect;
+    private volatile String board; // rows * cols cells, top row first: '.', '1' or '2'
+    private volatile String message = "";
+    private volatile int lastAIMove = -1;
+    private volatile long lastAccessNanos = System.nanoTime();
+ 
+    /**
+     * @param aiAgents Supplies the worker thread's AI, see GameController.
+     * @param aiExecutor The shared pool that runs AI searches.
+     * @param gameLog Receives the game when it ends or is closed, or null.
+     * @param depth Fixed search depth, used when budget is null.
+     * @param budget Time allowed per AI move, or null to search to the fixed depth.
+     * @throws IllegalArgumentException if Board does not support the size.
+     */
+    public GameSession(long id, Supplier<MinimaxAI> aiAgents, ExecutorService aiExecutor, GameLogWriter gameLog,
+                       int depth, Duration budget, int rows, int cols, int connect) {
+        this.id = id;
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        this.controller = new GameController(this::recordBoard, this::recordMessage, aiAgents, aiExecutor);
+        this.controller.setVariant(rows, cols, connect);
+        this.controller.setGameLog(gameLog);
+        this.controller.setAIMoveDelay(Duration.ZERO); // A pause would hold a shared worker
+        this.controller.setAIDifficulty(depth);
+        this.controller.setAITimeBudget(budget);
+        this.controller.addSearchStatsListener(stats -> lastAIMove = stats.getBestMove());
+        this.message = "Game started! Your turn (Player 1).";
+    }
+ 
+    private void recordBoard(Board board) {
+        StringBuilder cells = new StringBuilder(board.getRows() * board.getCols());
+        for (int r = 0; r < board.getRows(); r++) {
+            for (int c = 0; c < board.getCols(); c++) {
+                cells.append(".12".charAt(board.getCell(r, c)));
+            }
+        }
+        this.board = cells.toString();
+    }
+ 
+    private void recordMessage(String message) {
+        this.message = message;
+    }
+ 
+    /**
+     * Plays the human's move; the AI's reply is scheduled on the shared pool.
+     * Synchronized so two requests for the same session cannot both pass the turn check.
+     */
+    public synchronized void play(int col) {
+        touch();
+        if (col < 0 || col >= cols) {
+            message = "Invalid move. No column " + col + ".";
+            return;
+        }
+        controller.handleHumanMove(col);
+    }
+ 
+    public void close() {
+        controller.shutdown();
+    }
+ 
+    public void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+ 
+    public long getId() {
+        return id;
+    }
+ 
+    public long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+ 
+    /**
+     * @return The session state as a JSON object.
+     */
+    public String toJson() {
+        return "{\"id\":" + id
+                + ",\"rows\":" + rows
+                + ",\"cols\":" + cols
+                + ",\"connect\":" + connect
+                + ",\"board\":\"" + board + "\""
+                + ",\"turn\":" + controller.getCurrentPlayer()
+                + ",\"active\":" + controller.isGameActive()
+                + ",\"lastAIMove\":" + lastAIMove
+                + ",\"message\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+}
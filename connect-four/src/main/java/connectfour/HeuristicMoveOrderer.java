@@ -0,0 +1,108 @@
+package connectfour;
+ 
+/**
+* Default move ordering used by MinimaxAI. Moves are tried in this order:
+* 1. The transposition table's best move (the previous iteration's principal variation).
+* 2. The two killer moves of this ply: recent cutoff moves from sibling positions.
+* 3. The remaining moves by history score: how often and how deep a column caused
+*    cutoffs for this player.
+* Ties (e.g. at the start of a game, when there is no history yet) go to the column
+* closest to the center, since center columns take part in the most four-in-a-rows.
+*/
+public class HeuristicMoveOrderer implements MoveOrderer {
+    private static final int MAX_PLY = BitBoard.ROWS * BitBoard.COLS + 1;
+    private static final int HASH_MOVE_KEY = Integer.MAX_VALUE;
+    private static final int KILLER_KEY = 1 << 29; // Above any history score
+    private static final int[] CENTER_FIRST = new int[BitBoard.COLS];
+ 
+    static {
+        // 3, 2, 4, 1, 5, 0, 6 on the standard board
+        int center = BitBoard.COLS / 2;
+        CENTER_FIRST[0] = center;
+        for (int i = 1, offset = 1; i < BitBoard.COLS; offset++) {
+            if (center - offset >= 0) {
+                CENTER_FIRST[i++] = center - offset;
+            }
+            if (center + offset < BitBoard.COLS && i < BitBoard.COLS) {
+                CENTER_FIRST[i++] = center + offset;
+            }
+        }
+    }
+ 
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][BitBoard.COLS]; // Indexed by player - 1, then column
+    private final int[] keys = new int[BitBoard.COLS]; // Sort keys, parallel to the moves buffer
+ 
+    public HeuristicMoveOrderer() {
+        clearKillers();
+    }
+ 
+    @Override
+    public int orderMoves(BitBoard board, int player, int ply, int hashMove, int[] moves) {
+        int[] plyKillers = killers[ply];
+        int[] playerHistory = history[player - 1];
+        int validMoves = board.getValidMovesMask();
+        int count = 0;
+        for (int col : CENTER_FIRST) {
+            if ((validMoves & (1 << col)) == 0) {
+                continue;
+            }
+            int key;
+            if (col == hashMove) {
+                key = HASH_MOVE_KEY;
+            } else if (col == plyKillers[0]) {
+                key = KILLER_KEY + 1;
+            } else if (col == plyKillers[1]) {
+                key = KILLER_KEY;
+            } else {
+                key = playerHistory[col];
+            }
+            // Insertion sort; stable, so equal keys keep the center-first order
+            int i = count++;
+            while (i > 0 && keys[i - 1] < key) {
+                moves[i] = moves[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            moves[i] = col;
+            keys[i] = key;
+        }
+        return count;
+    }
+ 
+    @Override
+    public void recordCutoff(int player, int ply, int col, int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != col) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = col;
+        }
+        int[] playerHistory = history[player - 1];
+        playerHistory[col] += depth * depth;
+        if (playerHistory[col] >= KILLER_KEY) {
+            ageHistory();
+        }
+    }
+ 
+    @Override
+    public void newSearch() {
+        // Killers are tied to plies of the previous root; history is still a useful hint
+        clearKillers();
+        ageHistory();
+    }
+ 
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = -1;
+            plyKillers[1] = -1;
+        }
+    }
+ 
+    private void ageHistory() {
+        for (int[] playerHistory : history) {
+            for (int c = 0; c < playerHistory.length; c++) {
+                playerHistory[c] >>= 1;
+            }
+        }
+    }
+}
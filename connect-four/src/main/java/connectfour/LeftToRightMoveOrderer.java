@@ -0,0 +1,20 @@
+package connectfour;
+ 
+/**
+* Baseline ordering: columns 0 to 6 in board order, ignoring all search feedback.
+* Only useful as the reference point when measuring other orderings.
+*/
+public class LeftToRightMoveOrderer implements MoveOrderer {
+    @Override
+    public int orderMoves(BitBoard board, int player, int ply, int hashMove, int[] moves) {
+        return board.generateMoves(moves);
+    }
+ 
+    @Override
+    public void recordCutoff(int player, int ply, int col, int depth) {
+    }
+ 
+    @Override
+    public void newSearch() {
+    }
+}
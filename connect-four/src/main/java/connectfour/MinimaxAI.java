@@ -0,0 +1,1070 @@
+package connectfour;
+ 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+ 
+/**
+* Implements the Minimax algorithm with Alpha-Beta Pruning for the AI agent.
+* Search results are cached in a transposition table that lives as long as the game.
+* With more than one thread the search runs Lazy SMP: helper threads search the same
+* root on their own board copies and share results only through the lock-free table,
+* while the main thread's result is the one returned.
+* The search itself always maximizes for Player 2; an AI set to play Player 1 searches
+* a copy of the board with the colors swapped, which yields the same columns.
+* Every search is cancellable: interrupting the searching thread stops it within
+* TIME_CHECK_INTERVAL_MASK + 1 nodes.
+* Everything here is specialized for the standard 7 x 6 board; boards of other sizes or
+* connect lengths are handed to a VariantMinimaxAI with the same depth, player and weights.
+*/
+public class MinimaxAI {
+    private int searchDepth;
+    private static final int WIN_SCORE = 1000000;
+    // Scores beyond this are wins/losses adjusted by distance, never heuristic values
+    private static final int WIN_THRESHOLD = WIN_SCORE - Board.ROWS * Board.COLS;
+    private static final int DEFAULT_TT_SIZE_MB = 16;
+    private static final int SOLVER_TT_SIZE_MB = 16;
+    // Positions with at most this many empty cells are solved exactly; from ply 14 on this takes well under a second
+    private static final int DEFAULT_ENDGAME_EMPTY_CELLS = 28;
+    // Distinguishes identical piece layouts with a different player to move
+    private static final long SIDE_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+    // Bits of column 3 in the BitBoard layout
+    private static final long CENTER_COLUMN_MASK = ((1L << BitBoard.ROWS) - 1) << (3 * (BitBoard.ROWS + 1));
+ 
+    // Wall-clock deadline is checked once every this many nodes
+    private static final int TIME_CHECK_INTERVAL_MASK = 1024 - 1;
+ 
+    private final TranspositionTable transpositionTable;
+    private int threadCount = 1;
+    private ExecutorService helperPool; // Only created when threadCount > 1
+    private Supplier<MoveOrderer> moveOrdering = HeuristicMoveOrderer::new;
+    private MoveOrderer[] orderers = { moveOrdering.get() }; // One per search thread, main thread first
+    private SearchStats lastSearchStats;
+    private EvaluationWeights weights = EvaluationWeights.configured();
+    private OpeningBook openingBook; // Optional; probed before every search
+    private int player = Board.PLAYER_2;
+    private int endgameEmptyCells = DEFAULT_ENDGAME_EMPTY_CELLS;
+    private EndgameSolver endgameSolver; // Created on first use
+    private boolean symmetry = true;
+    private boolean threatPruning = true;
+    private final int ttSizeMb;
+    private VariantMinimaxAI variantSearch; // Created on the first non-standard board
+    private PositionStore positionStore; // Optional; deep results are recorded into it
+ 
+    public MinimaxAI(int depth) {
+        this(depth, DEFAULT_TT_SIZE_MB);
+    }
+ 
+    /**
+     * @param depth The search depth in plies.
+     * @param ttSizeMb Memory budget of the transposition table in megabytes.
+     */
+    public MinimaxAI(int depth, int ttSizeMb) {
+        this.searchDepth = depth;
+        this.ttSizeMb = ttSizeMb;
+        this.transpositionTable = new TranspositionTable(ttSizeMb);
+    }
+ 
+    public void setSearchDepth(int depth) {
+        this.searchDepth = depth;
+    }
+ 
+    /**
+     * Sets which side this AI plays. Defaults to Player 2, which moves second.
+     * @param player Board.PLAYER_1 or Board.PLAYER_2.
+     */
+    public void setPlayer(int player) {
+        if (player != Board.PLAYER_1 && player != Board.PLAYER_2) {
+            throw new IllegalArgumentException("Not a player: " + player);
+        }
+        this.player = player;
+    }
+ 
+    public int getPlayer() {
+        return player;
+    }
+ 
+    /**
+     * Sets how many threads search each move. 1 (the default) searches sequentially.
+     * Must not be called while a search is running.
+     * @param threads Number of search threads, including the calling thread.
+     */
+    public void setThreadCount(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        shutdown();
+        this.threadCount = threads;
+        this.orderers = createOrderers(threads);
+        if (threads > 1) {
+            this.helperPool = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "minimax-helper");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+ 
+    public int getThreadCount() {
+        return threadCount;
+    }
+ 
+    /**
+     * Replaces the move ordering. Each search thread gets its own instance from the supplier.
+     * Must not be called while a search is running.
+     * @param ordering Factory for the MoveOrderer to use, e.g. HeuristicMoveOrderer::new.
+     */
+    public void setMoveOrdering(Supplier<MoveOrderer> ordering) {
+        this.moveOrdering = ordering;
+        this.orderers = createOrderers(threadCount);
+    }
+ 
+    /**
+     * Replaces the evaluation weights. Must not be called while a search is running.
+     * New instances start with EvaluationWeights.configured(), the tuned weights file if there is one.
+     */
+    public void setEvaluationWeights(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+ 
+    public EvaluationWeights getEvaluationWeights() {
+        return weights;
+    }
+ 
+    /**
+     * Sets the opening book probed before searching, or null to always search.
+     * findBestMove(Board) uses it only when the search depth is at least the depth the book
+     * was generated with, so a lower difficulty is not answered with deeper moves.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.openingBook = book;
+    }
+ 
+    /**
+     * Sets from how many empty cells on findBestMove stops using the heuristic search
+     * and solves the position exactly instead, returning the fastest win, the slowest
+     * loss, or a draw. findBestMove(Board) solves only positions its search depth reaches
+     * the end of anyway, so the depth still sets the difficulty. With a time budget the
+     * solver gives up after half of it and the heuristic search takes over with the rest.
+     * @param emptyCells The threshold; 0 turns the solver off.
+     */
+    public void setEndgameThreshold(int emptyCells) {
+        this.endgameEmptyCells = emptyCells;
+    }
+ 
+    public int getEndgameThreshold() {
+        return endgameEmptyCells;
+    }
+ 
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+ 
+    /**
+     * Sets the persistent store that deep results are recorded into, or null for none, and
+     * warms the transposition table from it. The table is warmed again whenever it is
+     * cleared, so a new game starts with everything any game sharing the store has learned.
+     * Boards other than the standard one are not stored. Must not be called while a search
+     * is running.
+     */
+    public void setPositionStore(PositionStore store) {
+        this.positionStore = store;
+        if (store != null) {
+            warmFromStore();
+        }
+    }
+ 
+    public PositionStore getPositionStore() {
+        return positionStore;
+    }
+ 
+    /**
+     * Turns the use of left-right symmetry on or off (on by default). When on, a position
+     * and its mirror image share one transposition table entry, and while a position is
+     * its own mirror image only the columns up to the center are searched. Results are
+     * the same either way; only the node count changes. Clears the transposition table,
+     * whose keys depend on the setting. Must not be called while a search is running.
+     */
+    public void setSymmetryPruning(boolean enabled) {
+        this.symmetry = enabled;
+        transpositionTable.clear();
+        if (positionStore != null) {
+            warmFromStore();
+        }
+    }
+ 
+    public boolean isSymmetryPruning() {
+        return symmetry;
+    }
+ 
+    /**
+     * Turns the use of immediate threats on or off (on by default). When on, a node where
+     * the side to move can win at once is scored without searching, one where the opponent
+     * has two winning cells to play is scored as the loss it is, and when the opponent has
+     * one, only the blocking move is searched. With at least two plies left each of these
+     * gives the score the full search would, so only the node count changes.
+     * Must not be called while a search is running.
+     */
+    public void setThreatPruning(boolean enabled) {
+        this.threatPruning = enabled;
+    }
+ 
+    public boolean isThreatPruning() {
+        return threatPruning;
+    }
+ 
+    /**
+     * @return Statistics of the most recent findBestMove call, or null before the first search.
+     */
+    public SearchStats getLastSearchStats() {
+        return lastSearchStats;
+    }
+ 
+    private MoveOrderer[] createOrderers(int threads) {
+        MoveOrderer[] created = new MoveOrderer[threads];
+        for (int i = 0; i < threads; i++) {
+            created[i] = moveOrdering.get();
+        }
+        return created;
+    }
+ 
+    /**
+     * Stops the helper threads, if any. The AI can still search sequentially afterwards.
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
+        }
+        threadCount = 1;
+        orderers = new MoveOrderer[] { orderers[0] };
+    }
+ 
+    /**
+     * Forgets everything learned so far, apart from what the position store holds. Call
+     * when a new game starts; within a game the table is kept so later moves reuse the
+     * work of earlier searches. With a position store the table is warmed from it again,
+     * which for a full store means hundreds of thousands of entries: call this on the
+     * thread that runs the searches, never on a UI thread, and never during a search.
+     */
+    public void clearTranspositionTable() {
+        transpositionTable.clear();
+        if (endgameSolver != null) {
+            endgameSolver.clear();
+        }
+        if (variantSearch != null) {
+            variantSearch.clearTranspositionTable();
+        }
+        if (positionStore != null) {
+            warmFromStore();
+        }
+    }
+ 
+    // Loads the store's entries into the transposition table under this AI's keys and move orientation
+    private void warmFromStore() {
+        positionStore.forEachEntry((key, data) -> {
+            long positionKey = key & ~PositionStore.PLAYER_1_TO_MOVE;
+            long occupied = BitBoard.occupiedMask(positionKey);
+            long player2 = positionKey & occupied;
+            long player1 = occupied ^ player2;
+            long hash = BitBoard.zobristHash(player1, player2);
+            long mirrorHash = BitBoard.zobristHash(BitBoard.mirror(player1), BitBoard.mirror(player2));
+            long sideToMove = (key & PositionStore.PLAYER_1_TO_MOVE) != 0 ? SIDE_TO_MOVE_KEY : 0;
+            int move = TranspositionTable.move(data); // For the stored orientation, which is the decoded one
+            int mirroredMove = move == TranspositionTable.NO_MOVE ? move : BitBoard.COLS - 1 - move;
+            int score = TranspositionTable.score(data);
+            int depth = TranspositionTable.depth(data);
+            int bound = TranspositionTable.bound(data);
+            if (symmetry) {
+                // Table moves are for the lower-hashing orientation, see ttMove
+                transpositionTable.store(Math.min(hash, mirrorHash) ^ sideToMove, score, depth, bound,
+                        mirrorHash < hash ? mirroredMove : move);
+            } else {
+                transpositionTable.store(hash ^ sideToMove, score, depth, bound, move);
+                transpositionTable.store(mirrorHash ^ sideToMove, score, depth, bound, mirroredMove);
+            }
+        });
+    }
+ 
+    /**
+     * The main AI decision-making method.
+     * It iterates over all possible moves and finds the one that yields the
+     * highest Minimax score. The opening book and the endgame solver answer only when
+     * their moves are no deeper than the search depth.
+     * @param board The current board state.
+     * @return The optimal Move (column index), or null if the search was interrupted.
+     */
+    public Move findBestMove(Board board) {
+        if (!board.isStandard()) {
+            Move move = variantSearch().findBestMove(board);
+            lastSearchStats = variantSearch.getLastSearchStats();
+            return move;
+        }
+        long startNanos = System.nanoTime();
+        // Convert once per search; every node below works on this board in place
+        BitBoard searchBoard = new BitBoard(board, player == Board.PLAYER_1);
+        Move bookMove = probeBook(searchBoard, startNanos, searchDepth);
+        if (bookMove != null) {
+            return bookMove;
+        }
+        Move solvedMove = solveEndgame(searchBoard, startNanos, Long.MAX_VALUE, searchDepth);
+        if (solvedMove != null || Thread.currentThread().isInterrupted()) {
+            return solvedMove;
+        }
+        newSearch();
+ 
+        List<SearchContext> helpers = startHelpers(searchBoard, searchDepth, Long.MAX_VALUE);
+        SearchContext ctx = new SearchContext(searchBoard, Long.MAX_VALUE, orderers[0]);
+        int bestCol = searchRoot(ctx, searchDepth, TranspositionTable.NO_MOVE);
+        long[] iterationNanos = { System.nanoTime() - startNanos };
+        stopHelpers(helpers);
+        recordStats(ctx, helpers, bestCol, searchDepth, startNanos, iterationNanos, 1);
+ 
+        // Return the best move found, prioritizing center columns if scores are equal
+        return bestCol < 0 ? null : Move.of(bestCol);
+    }
+ 
+    /**
+     * Time-bounded variant of findBestMove using iterative deepening.
+     * Searches depth 1, 2, 3, ... with each iteration trying the previous iteration's
+     * principal variation first (at the root directly, below it through the transposition
+     * table), and returns the best move of the deepest iteration that finished in time.
+     * @param board The current board state.
+     * @param budget Wall-clock time allowed for this move.
+     * @return The best Move found within the budget. If the thread is interrupted the
+     *         search stops like at the deadline, returning null if not even depth 1 completed.
+     */
+    public Move findBestMove(Board board, Duration budget) {
+        if (!board.isStandard()) {
+            Move move = variantSearch().findBestMove(board, budget);
+            lastSearchStats = variantSearch.getLastSearchStats();
+            return move;
+        }
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + budget.toNanos();
+        BitBoard searchBoard = new BitBoard(board, player == Board.PLAYER_1);
+        Move bookMove = probeBook(searchBoard, startNanos, Integer.MAX_VALUE);
+        if (bookMove != null) {
+            return bookMove;
+        }
+        // The solver gets half the budget, so if it gives up the search still has time to deepen
+        Move solvedMove = solveEndgame(searchBoard, startNanos, startNanos + budget.toNanos() / 2, Integer.MAX_VALUE);
+        if (solvedMove != null) {
+            return solvedMove;
+        }
+        newSearch();
+ 
+        int maxDepth = Board.ROWS * Board.COLS - searchBoard.getMoveCount();
+        List<SearchContext> helpers = startHelpers(searchBoard, maxDepth, deadline);
+        SearchContext ctx = new SearchContext(searchBoard, Long.MAX_VALUE, orderers[0]);
+        long[] iterationNanos = new long[Math.max(maxDepth, 1)];
+        int bestCol = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        long iterationStart = startNanos;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            // The first iteration always completes so there is a move to return
+            ctx.deadlineNanos = depth == 1 ? Long.MAX_VALUE : deadline;
+            int col = searchRoot(ctx, depth, bestCol < 0 ? TranspositionTable.NO_MOVE : bestCol);
+            if (ctx.aborted) {
+                break; // Partial iteration; keep the last completed result
+            }
+            bestCol = col;
+            bestScore = ctx.rootScore;
+            completedDepth = depth;
+            long now = System.nanoTime();
+            iterationNanos[depth - 1] = now - iterationStart;
+            iterationStart = now;
+            if (Math.abs(ctx.rootScore) >= WIN_THRESHOLD || now >= deadline) {
+                break; // Forced result found, or no time left for another iteration
+            }
+        }
+        stopHelpers(helpers);
+        ctx.rootScore = bestScore; // An aborted iteration may have overwritten it
+        recordStats(ctx, helpers, bestCol, completedDepth, startNanos, iterationNanos, completedDepth);
+        return bestCol < 0 ? null : Move.of(bestCol);
+    }
+ 
+    // The generic search, configured like this one
+    private VariantMinimaxAI variantSearch() {
+        if (variantSearch == null) {
+            variantSearch = new VariantMinimaxAI(searchDepth, ttSizeMb);
+        }
+        variantSearch.setSearchDepth(searchDepth);
+        variantSearch.setPlayer(player);
+        variantSearch.setEvaluationWeights(weights);
+        return variantSearch;
+    }
+ 
+    // Returns the book move, if any and if the book was searched no deeper than maxDepth,
+    // and records it as a depth-0 search with no nodes
+    private Move probeBook(BitBoard board, long startNanos, int maxDepth) {
+        if (openingBook == null || openingBook.getSearchDepth() > maxDepth) {
+            return null;
+        }
+        int col = openingBook.probe(board);
+        if (col == OpeningBook.NO_MOVE || !board.isColumnValid(col)) {
+            return null;
+        }
+        lastSearchStats = new SearchStats(col, openingBook.probeScore(board), 0, threadCount, 0, 0, 0, 0, 0, 0,
+                System.nanoTime() - startNanos, new long[0], new int[] { col });
+        return Move.of(col);
+    }
+ 
+    /**
+     * Solves the position exactly when few enough cells are empty, recording it as a
+     * search to the end of the game, emptyCells plies deep. Solver scores, which count
+     * the winner's stones, are converted to the plies until the winning move, so a
+     * decided position scores WIN_SCORE + depth - plies exactly as the search would.
+     * @param maxDepth Deepest search the caller allows; deeper endgames are left to the search.
+     * @return The move, or null if the position is not an endgame or the solver gave up.
+     */
+    private Move solveEndgame(BitBoard board, long startNanos, long deadlineNanos, int maxDepth) {
+        int emptyCells = Board.ROWS * Board.COLS - board.getMoveCount();
+        if (emptyCells > Math.min(endgameEmptyCells, maxDepth) || emptyCells == 0) {
+            return null;
+        }
+        if (endgameSolver == null) {
+            endgameSolver = new EndgameSolver(SOLVER_TT_SIZE_MB);
+        }
+        int col = endgameSolver.bestMove(board, Board.PLAYER_2, deadlineNanos);
+        if (col < 0) {
+            return null;
+        }
+        int solverScore = endgameSolver.getLastScore();
+        int score = 0;
+        if (solverScore != 0) {
+            int moveCount = board.getMoveCount();
+            int winningStone = Board.ROWS * Board.COLS / 2 + 1 - Math.abs(solverScore); // Counted for the winner
+            // The side to move has placed moveCount / 2 stones and plays next; the opponent one ply later
+            int plies = solverScore > 0 ? 2 * (winningStone - moveCount / 2) - 1
+                    : 2 * (winningStone - (moveCount + 1) / 2);
+            score = Integer.signum(solverScore) * (WIN_SCORE + emptyCells - plies);
+        }
+        long nodes = endgameSolver.getNodes();
+        lastSearchStats = new SearchStats(col, score, emptyCells, 1, nodes, 0, 0, 0, 0, 0,
+                System.nanoTime() - startNanos, new long[0], new int[] { col });
+        return Move.of(col);
+    }
+ 
+    /**
+     * Searches on the opponent's time. Called with the opponent to move, it deepens
+     * iteratively over each of the opponent's replies, the replies that look best for the
+     * opponent first, and keeps the results only in the transposition table. Once the
+     * real reply arrives, findBestMove finds its root, and every node below it, already
+     * searched to the depth pondering reached.
+     * Runs until maxDepth is reached or the calling thread is interrupted, so it is meant
+     * to run as a task that is cancelled with Future.cancel(true) when the reply arrives.
+     * Uses the main thread only and leaves getLastSearchStats() untouched. Boards other
+     * than the standard one are not pondered.
+     * @param board The position after this AI's move, with the opponent to move.
+     * @param maxDepth Deepest search to run for each reply.
+     */
+    public void ponder(Board board, int maxDepth) {
+        if (!board.isStandard()) {
+            return;
+        }
+        BitBoard root = new BitBoard(board, player == Board.PLAYER_1);
+        newSearch();
+        int[] replies = new int[BitBoard.COLS];
+        int replyCount = 0;
+        SearchContext[] contexts = new SearchContext[BitBoard.COLS];
+        int[] generated = new int[BitBoard.COLS];
+        int moveCount = root.generateMoves(generated);
+        boolean symmetric = symmetry && root.isSymmetric();
+        for (int i = 0; i < moveCount; i++) {
+            int col = generated[i];
+            if (symmetric && col > BitBoard.COLS / 2) {
+                continue; // Its mirror reply shares the same table entries
+            }
+            BitBoard reply = new BitBoard(root);
+            reply.makeMove(col, Board.PLAYER_1);
+            if (reply.checkWin(Board.PLAYER_1) || reply.isDraw()) {
+                continue; // The game ends there; nothing to search
+            }
+            replies[replyCount] = col;
+            contexts[col] = new SearchContext(reply, Long.MAX_VALUE, orderers[0]);
+            replyCount++;
+        }
+ 
+        int[] bestCols = new int[BitBoard.COLS];
+        Arrays.fill(bestCols, TranspositionTable.NO_MOVE);
+        int depthLimit = Math.min(maxDepth, Board.ROWS * Board.COLS - root.getMoveCount() - 1);
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            for (int i = 0; i < replyCount; i++) {
+                SearchContext ctx = contexts[replies[i]];
+                int col = searchRoot(ctx, depth, bestCols[replies[i]]);
+                if (ctx.aborted) {
+                    return;
+                }
+                bestCols[replies[i]] = col;
+            }
+            // The opponent most likely plays the reply that is worst for us; ponder it first
+            for (int i = 1; i < replyCount; i++) {
+                int col = replies[i];
+                int j = i;
+                while (j > 0 && contexts[replies[j - 1]].rootScore > contexts[col].rootScore) {
+                    replies[j] = replies[j - 1];
+                    j--;
+                }
+                replies[j] = col;
+            }
+        }
+    }
+ 
+    /**
+     * Scores every legal column of a position in one search. Deepens iteratively; in each
+     * iteration every column is searched with a full window, so its score is exact at that
+     * depth, and the columns share one transposition table, so each column mostly reuses
+     * what the ones before it (and the earlier iterations) found. Columns are searched best
+     * first, and the listener receives a new snapshot each time a column finishes and
+     * each time an iteration completes.
+     * Uses the main thread only. Interrupting the thread stops the analysis like the
+     * deadline does. Afterwards getLastSearchStats() describes the analysis as a search
+     * for the best column.
+     * @param board The position, with the side this AI plays (see setPlayer) to move;
+     *              must be the standard board.
+     * @param maxDepth Deepest iteration to run, counting each column's own move.
+     * @param budget Wall-clock time allowed, or null to run to maxDepth. Depth 1 always completes.
+     * @param listener Receives the intermediate results, or null.
+     * @return The last snapshot; columns carry the deepest result they completed.
+     */
+    public Analysis analyze(Board board, int maxDepth, Duration budget, AnalysisListener listener) {
+        if (!board.isStandard()) {
+            throw new IllegalArgumentException("Analysis is only available on the standard board");
+        }
+        long startNanos = System.nanoTime();
+        long deadline = budget == null ? Long.MAX_VALUE : startNanos + budget.toNanos();
+        BitBoard root = new BitBoard(board, player == Board.PLAYER_1);
+        newSearch();
+        SearchContext ctx = new SearchContext(root, Long.MAX_VALUE, orderers[0]);
+        int[] columns = new int[BitBoard.COLS];
+        int columnCount = 0;
+        boolean symmetric = symmetry && root.isSymmetric();
+        int[] generated = new int[BitBoard.COLS];
+        int moveCount = ctx.orderer.orderMoves(root, Board.PLAYER_2, 0, TranspositionTable.NO_MOVE, generated);
+        for (int i = 0; i < moveCount; i++) {
+            if (!symmetric || generated[i] <= BitBoard.COLS / 2) {
+                columns[columnCount++] = generated[i]; // Mirror columns copy their twin's result
+            }
+        }
+ 
+        Analysis.ColumnScore[] scores = new Analysis.ColumnScore[BitBoard.COLS];
+        int[] searchScores = new int[BitBoard.COLS]; // As minimax returned them, wins relative to the depth
+        Analysis analysis = new Analysis(scores, 0, 0, 0);
+        long[] iterationNanos = new long[Math.max(maxDepth, 1)];
+        int completedDepth = 0;
+        long iterationStart = startNanos;
+        int depthLimit = Math.min(maxDepth, Board.ROWS * Board.COLS - root.getMoveCount());
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            ctx.deadlineNanos = depth == 1 ? Long.MAX_VALUE : deadline;
+            boolean allDecided = true;
+            for (int i = 0; i < columnCount; i++) {
+                int col = columns[i];
+                root.makeMove(col, Board.PLAYER_2);
+                int score = minimax(ctx, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, Board.PLAYER_1);
+                int[] line = principalVariation(root, Board.PLAYER_1, depth - 1);
+                root.undoMove(col);
+                if (ctx.aborted) {
+                    break;
+                }
+                int result = score >= WIN_THRESHOLD ? 1 : score <= -WIN_THRESHOLD ? -1 : 0;
+                allDecided &= result != 0;
+                // A win found with r plies of depth left ends the game after depth - r plies
+                int pliesToEnd = result == 0 ? 0 : depth - (Math.abs(score) - WIN_SCORE);
+                int analysisScore = result == 0 ? score : result * (WIN_SCORE - pliesToEnd);
+                int[] pv = new int[line.length + 1];
+                pv[0] = col;
+                System.arraycopy(line, 0, pv, 1, line.length);
+                searchScores[col] = score;
+                scores[col] = new Analysis.ColumnScore(col, analysisScore, depth, result, pliesToEnd, pv);
+                int mirrorCol = BitBoard.COLS - 1 - col;
+                if (symmetric && mirrorCol != col) {
+                    for (int j = 0; j < pv.length; j++) {
+                        pv[j] = BitBoard.COLS - 1 - pv[j];
+                    }
+                    searchScores[mirrorCol] = score;
+                    scores[mirrorCol] = new Analysis.ColumnScore(mirrorCol, analysisScore, depth, result, pliesToEnd, pv);
+                }
+                analysis = new Analysis(scores, completedDepth, ctx.nodes, System.nanoTime() - startNanos);
+                if (listener != null) {
+                    listener.onAnalysisUpdated(analysis);
+                }
+            }
+            if (ctx.aborted) {
+                break;
+            }
+            completedDepth = depth;
+            long now = System.nanoTime();
+            iterationNanos[depth - 1] = now - iterationStart;
+            iterationStart = now;
+            analysis = new Analysis(scores, completedDepth, ctx.nodes, now - startNanos);
+            if (listener != null) {
+                listener.onAnalysisUpdated(analysis);
+            }
+            // Every column searched with a full window makes the root exact at this depth
+            int bestCol = analysis.getBestColumn();
+            transpositionTable.store(ttKey(root, Board.PLAYER_2),
+                    scoreToTable(searchScores[bestCol], depth), depth,
+                    TranspositionTable.EXACT, ttMove(root, bestCol));
+            if (allDecided || now >= deadline) {
+                break; // Deeper iterations cannot change forced results, or no time is left
+            }
+            // Next iteration: best columns first, so the table is filled along the main line
+            for (int i = 1; i < columnCount; i++) {
+                int col = columns[i];
+                int j = i;
+                while (j > 0 && scores[columns[j - 1]].getScore() < scores[col].getScore()) {
+                    columns[j] = columns[j - 1];
+                    j--;
+                }
+                columns[j] = col;
+            }
+        }
+ 
+        int bestCol = analysis.getBestColumn();
+        ctx.rootScore = bestCol < 0 ? 0 : searchScores[bestCol];
+        lastSearchStats = new SearchStats(bestCol, ctx.rootScore, completedDepth, 1, ctx.nodes, ctx.leafEvaluations,
+                ctx.betaCutoffs, ctx.firstMoveCutoffs, ctx.ttProbes, ctx.ttHits, System.nanoTime() - startNanos,
+                Arrays.copyOf(iterationNanos, completedDepth),
+                bestCol < 0 ? new int[0] : scores[bestCol].getPrincipalVariation());
+        return analysis;
+    }
+ 
+    private void newSearch() {
+        transpositionTable.newSearch();
+        for (MoveOrderer orderer : orderers) {
+            orderer.newSearch();
+        }
+    }
+ 
+    /**
+     * Searches all root moves to the given depth, trying pvCol first and the rest in move-ordering order.
+     * @return The best column, or -1 if there is no legal move or the search was aborted.
+     */
+    private int searchRoot(SearchContext ctx, int depth, int pvCol) {
+        BitBoard board = ctx.board;
+        int bestScore = Integer.MIN_VALUE;
+        int bestCol = -1;
+ 
+        // An exact result for this position from an earlier, deep enough search can be reused as-is
+        long rootKey = ttKey(board, Board.PLAYER_2);
+        long entry = transpositionTable.probe(rootKey);
+        int hashMove = entry != 0 ? ttMove(board, TranspositionTable.move(entry)) : TranspositionTable.NO_MOVE;
+        if (entry != 0 && TranspositionTable.bound(entry) == TranspositionTable.EXACT
+                && TranspositionTable.depth(entry) >= depth
+                && board.isColumnValid(hashMove)) {
+            ctx.rootScore = scoreFromTable(TranspositionTable.score(entry), depth);
+            return hashMove;
+        }
+ 
+        // 1. Iterate over possible moves, principal variation move first
+        int[] moves = ctx.moveBuffers[0];
+        int moveCount = ctx.orderer.orderMoves(board, Board.PLAYER_2, 0, pvCol, moves);
+        boolean symmetric = symmetry && board.isSymmetric();
+        for (int i = 0; i < moveCount; i++) {
+            int col = moves[i];
+            if (symmetric && col > BitBoard.COLS / 2) {
+                continue; // Same value as its mirror column
+            }
+            // 2. Simulate the move in place
+            board.makeMove(col, Board.PLAYER_2); // AI is Player 2
+ 
+            // 3. Call minimax for the opponent (Player 1/Minimizer)
+            // Moves that cannot beat the best score so far only need to prove that
+            int score = minimax(ctx, depth - 1, bestScore, Integer.MAX_VALUE, Board.PLAYER_1);
+            board.undoMove(col);
+            if (ctx.aborted) {
+                return -1;
+            }
+ 
+            if (score > bestScore) {
+                bestScore = score;
+                bestCol = col;
+            }
+        }
+ 
+        // Moves are only rejected when they cannot beat the best one, so the root score is exact
+        if (bestCol >= 0) {
+            transpositionTable.store(rootKey, scoreToTable(bestScore, depth), depth,
+                    TranspositionTable.EXACT, ttMove(board, bestCol));
+            persist(board, Board.PLAYER_2, scoreToTable(bestScore, depth), depth, TranspositionTable.EXACT, bestCol);
+        }
+        ctx.rootScore = bestScore;
+        return bestCol;
+    }
+ 
+    /**
+     * Launches threadCount - 1 helper searches on copies of the root position.
+     * Odd helpers search one ply deeper and each helper tries a different root move first,
+     * so they fill the shared table with entries the main thread has not reached yet.
+     */
+    private List<SearchContext> startHelpers(BitBoard root, int maxDepth, long deadlineNanos) {
+        List<SearchContext> helpers = new ArrayList<>();
+        for (int id = 1; id < threadCount; id++) {
+            SearchContext helper = new SearchContext(new BitBoard(root), deadlineNanos, orderers[id]);
+            int firstCol = (BitBoard.COLS / 2 + id) % BitBoard.COLS;
+            int depthLimit = maxDepth + (id & 1);
+            helper.task = helperPool.submit(() -> {
+                for (int depth = 1; depth <= depthLimit && !helper.aborted; depth++) {
+                    searchRoot(helper, depth, firstCol);
+                }
+            });
+            helpers.add(helper);
+        }
+        return helpers;
+    }
+ 
+    // Signals the helpers to stop and waits, so none of them outlives the search that started it.
+    // Keeps waiting when interrupted (helpers stop within a few nodes) and restores the interrupt after.
+    private void stopHelpers(List<SearchContext> helpers) {
+        for (SearchContext helper : helpers) {
+            helper.stopRequested = true;
+        }
+        boolean interrupted = false;
+        for (SearchContext helper : helpers) {
+            while (true) {
+                try {
+                    helper.task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Helper search failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+ 
+    // Sums the per-thread counters once the search is over, so the hot loop never shares a counter
+    private void recordStats(SearchContext main, List<SearchContext> helpers, int bestCol, int depth,
+                             long startNanos, long[] iterationNanos, int iterations) {
+        long nodes = main.nodes;
+        long leafEvaluations = main.leafEvaluations;
+        long betaCutoffs = main.betaCutoffs;
+        long firstMoveCutoffs = main.firstMoveCutoffs;
+        long ttProbes = main.ttProbes;
+        long ttHits = main.ttHits;
+        for (SearchContext helper : helpers) {
+            nodes += helper.nodes;
+            leafEvaluations += helper.leafEvaluations;
+            betaCutoffs += helper.betaCutoffs;
+            firstMoveCutoffs += helper.firstMoveCutoffs;
+            ttProbes += helper.ttProbes;
+            ttHits += helper.ttHits;
+        }
+        lastSearchStats = new SearchStats(bestCol, main.rootScore, depth, threadCount, nodes, leafEvaluations,
+                betaCutoffs, firstMoveCutoffs, ttProbes, ttHits, System.nanoTime() - startNanos,
+                Arrays.copyOf(iterationNanos, iterations), principalVariation(main.board, Board.PLAYER_2, depth));
+    }
+ 
+    // Follows the best moves stored in the transposition table from the given position
+    private int[] principalVariation(BitBoard root, int playerToMove, int maxLength) {
+        BitBoard board = new BitBoard(root);
+        int[] line = new int[maxLength];
+        int length = 0;
+        int player = playerToMove;
+        while (length < maxLength && !board.checkWin(Board.PLAYER_1) && !board.checkWin(Board.PLAYER_2)) {
+            long entry = transpositionTable.probe(ttKey(board, player));
+            if (entry == 0 || !board.isColumnValid(ttMove(board, TranspositionTable.move(entry)))) {
+                break;
+            }
+            line[length] = ttMove(board, TranspositionTable.move(entry));
+            board.makeMove(line[length++], player);
+            player = (player == Board.PLAYER_1) ? Board.PLAYER_2 : Board.PLAYER_1;
+        }
+        return Arrays.copyOf(line, length);
+    }
+ 
+    /**
+     * The recursive Minimax function with Alpha-Beta Pruning.
+     * 
+     * @param ctx The calling thread's search state, including the board being searched.
+     * @param depth The remaining search depth.
+     * @param alpha The alpha cutoff value (best Maximizer score found so far).
+     * @param beta The beta cutoff value (best Minimizer score found so far).
+     * @param currentPlayer The player whose turn it is (PLAYER_1 or PLAYER_2).
+     * @return The evaluated score of the board state.
+     */
+    private int minimax(SearchContext ctx, int depth, int alpha, int beta, int currentPlayer) {
+        // Out of time or stopped: unwind without trusting or storing anything from here on
+        if ((++ctx.nodes & TIME_CHECK_INTERVAL_MASK) == 0
+                && (ctx.stopRequested || System.nanoTime() > ctx.deadlineNanos
+                    || Thread.currentThread().isInterrupted())) {
+            ctx.aborted = true;
+        }
+        if (ctx.aborted) {
+            return 0;
+        }
+        BitBoard board = ctx.board;
+        int opponent = (currentPlayer == Board.PLAYER_1) ? Board.PLAYER_2 : Board.PLAYER_1;
+ 
+        // --- BASE CASES ---
+ 
+        // 1. Win/Loss condition check; only the player who just moved can have won
+        if (board.checkWin(opponent)) {
+            // AI (Max) win, prioritize faster wins; Human (Min) win, prioritize delaying loss
+            return opponent == Board.PLAYER_2 ? WIN_SCORE + depth : -WIN_SCORE - depth;
+        }
+ 
+        // 2. Max depth reached (static evaluation)
+        if (depth == 0) {
+            ctx.leafEvaluations++;
+            return evaluate(board);
+        }
+ 
+        // 3. Draw condition
+        if (board.isDraw()) {
+            return 0;
+        }
+ 
+        // 4. Immediate threats: a winning cell we can play wins next ply, two of the opponent's lose
+        // the ply after; a single one must be blocked. Scored exactly as the search would score them
+        long forced = 0;
+        if (threatPruning) {
+            long playable = board.getPlayableMask();
+            int sign = currentPlayer == Board.PLAYER_2 ? 1 : -1;
+            if ((board.getThreatMask(currentPlayer) & playable) != 0) {
+                return sign * (WIN_SCORE + depth - 1);
+            }
+            if (depth >= 2) {
+                forced = board.getThreatMask(opponent) & playable;
+                if ((forced & (forced - 1)) != 0) {
+                    return -sign * (WIN_SCORE + depth - 2);
+                }
+            }
+        }
+ 
+        // 5. Transposition table: reuse a stored result, or at least narrow the window
+        long key = ttKey(board, currentPlayer);
+        long entry = transpositionTable.probe(key);
+        ctx.ttProbes++;
+        if (entry != 0) {
+            ctx.ttHits++;
+        }
+        int hashMove = entry != 0 ? ttMove(board, TranspositionTable.move(entry)) : TranspositionTable.NO_MOVE;
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = scoreFromTable(TranspositionTable.score(entry), depth);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT) {
+                return ttScore;
+            } else if (bound == TranspositionTable.LOWER_BOUND) {
+                alpha = Math.max(alpha, ttScore);
+            } else {
+                beta = Math.min(beta, ttScore);
+            }
+            if (beta <= alpha) {
+                return ttScore;
+            }
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        int bestCol = TranspositionTable.NO_MOVE;
+        int bestEval;
+        int ply = board.getMoveCount() - ctx.rootMoveCount;
+        int[] moves = ctx.moveBuffers[ply];
+        int moveCount = ctx.orderer.orderMoves(board, currentPlayer, ply, hashMove, moves);
+        if (forced != 0) {
+            moves[0] = BitBoard.columnOf(forced); // Any other move loses at once
+            moveCount = 1;
+        }
+        // While the position is its own mirror image, columns right of center repeat the left ones
+        boolean symmetric = symmetry && board.isSymmetric();
+ 
+        // --- RECURSIVE CASES ---
+ 
+        if (currentPlayer == Board.PLAYER_2) { // Maximizer (AI)
+            int maxEval = Integer.MIN_VALUE;
+            for (int i = 0; i < moveCount; i++) {
+                int col = moves[i];
+                if (symmetric && col > BitBoard.COLS / 2) {
+                    continue;
+                }
+                board.makeMove(col, Board.PLAYER_2);
+                int eval = minimax(ctx, depth - 1, alpha, beta, Board.PLAYER_1);
+                board.undoMove(col);
+                if (ctx.aborted) {
+                    return 0;
+                }
+                if (eval > maxEval) {
+                    maxEval = eval;
+                    bestCol = col;
+                }
+                alpha = Math.max(alpha, maxEval);
+                if (beta <= alpha) { // Alpha-Beta Pruning
+                    ctx.orderer.recordCutoff(Board.PLAYER_2, ply, col, depth);
+                    ctx.recordCutoff(i);
+                    break;
+                }
+            }
+            bestEval = maxEval;
+        } else { // Minimizer (Human)
+            int minEval = Integer.MAX_VALUE;
+            for (int i = 0; i < moveCount; i++) {
+                int col = moves[i];
+                if (symmetric && col > BitBoard.COLS / 2) {
+                    continue;
+                }
+                board.makeMove(col, Board.PLAYER_1);
+                int eval = minimax(ctx, depth - 1, alpha, beta, Board.PLAYER_2);
+                board.undoMove(col);
+                if (ctx.aborted) {
+                    return 0;
+                }
+                if (eval < minEval) {
+                    minEval = eval;
+                    bestCol = col;
+                }
+                beta = Math.min(beta, minEval);
+                if (beta <= alpha) { // Alpha-Beta Pruning
+                    ctx.orderer.recordCutoff(Board.PLAYER_1, ply, col, depth);
+                    ctx.recordCutoff(i);
+                    break;
+                }
+            }
+            bestEval = minEval;
+        }
+ 
+        int bound;
+        if (bestEval <= alphaOrig) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestEval >= betaOrig) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        transpositionTable.store(key, scoreToTable(bestEval, depth), depth, bound, ttMove(board, bestCol));
+        persist(board, currentPlayer, scoreToTable(bestEval, depth), depth, bound, bestCol);
+        return bestEval;
+    }
+ 
+    // Hands results deep enough to be worth keeping to the position store; the store's writer does the I/O
+    private void persist(BitBoard board, int playerToMove, int tableScore, int depth, int bound, int bestCol) {
+        if (positionStore != null && depth >= positionStore.getMinDepth()) {
+            positionStore.record(PositionStore.key(board, playerToMove), tableScore, depth, bound,
+                    PositionStore.orient(board, bestCol));
+        }
+    }
+ 
+    // With symmetry on, a position and its mirror image share the key of whichever hashes lower
+    private long ttKey(BitBoard board, int playerToMove) {
+        long hash = symmetry ? Math.min(board.getHash(), board.getMirrorHash()) : board.getHash();
+        return playerToMove == Board.PLAYER_1 ? hash ^ SIDE_TO_MOVE_KEY : hash;
+    }
+ 
+    // Table moves are stored for the lower-hashing orientation; flips a move between it and this board's
+    private int ttMove(BitBoard board, int move) {
+        if (symmetry && move != TranspositionTable.NO_MOVE && board.getMirrorHash() < board.getHash()) {
+            return BitBoard.COLS - 1 - move;
+        }
+        return move;
+    }
+ 
+    // Win scores encode the remaining depth; store them relative to this node so they stay
+    // valid when the same position is reached at a different depth
+    private static int scoreToTable(int score, int depth) {
+        if (score >= WIN_THRESHOLD) {
+            return score - depth;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score + depth;
+        }
+        return score;
+    }
+ 
+    private static int scoreFromTable(int score, int depth) {
+        if (score >= WIN_THRESHOLD) {
+            return score + depth;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score - depth;
+        }
+        return score;
+    }
+ 
+    /**
+     * The Evaluation Function (Heuristic). This is the 'intelligence' of the AI.
+     * It scores a non-terminal board state based on how favorable it is for the AI (Player 2).
+     * Window counts are maintained incrementally by BitBoard.makeMove/undoMove, so this is
+     * a constant amount of work regardless of how many pieces are on the board.
+     * @param board The board to evaluate.
+     * @return A score: positive for AI advantage, negative for human advantage, 0 for neutral.
+     */
+    public int evaluate(BitBoard board) {
+        // Scoring is based on forming 'lines' of 2, 3, or blocking opponent's lines.
+        int score = 0;
+        
+        // Heuristic 1: Prioritize center column
+        score += weights.getCenterPiece() * (Long.bitCount(board.getPieces(Board.PLAYER_2) & CENTER_COLUMN_MASK)
+                - Long.bitCount(board.getPieces(Board.PLAYER_1) & CENTER_COLUMN_MASK));
+ 
+        // Heuristic 2: Open 2-in-a-rows and 3-in-a-rows, over all 69 four-cell windows.
+        // A window only counts while the opponent has no piece in it (it can still become a four).
+        score += weights.getOpenTwo() * (board.getOpenLines(Board.PLAYER_2, 2) - board.getOpenLines(Board.PLAYER_1, 2));
+        score += weights.getOpenThree() * (board.getOpenLines(Board.PLAYER_2, 3) - board.getOpenLines(Board.PLAYER_1, 3));
+ 
+        // Heuristic 3: Threats, i.e. distinct empty cells that would complete a four
+        score += weights.getThreat() * (Long.bitCount(board.getThreatMask(Board.PLAYER_2))
+                - Long.bitCount(board.getThreatMask(Board.PLAYER_1)));
+ 
+        return score;
+    }
+ 
+    /**
+     * The terms evaluate weighs, Player 2's count minus Player 1's, in the order of
+     * EvaluationWeights.toArray: evaluate(board) is their dot product with the weights.
+     * Used to fit the weights offline; keep in step with evaluate.
+     * @param features Receives EvaluationWeights.COUNT values.
+     */
+    public static void evaluationFeatures(BitBoard board, int[] features) {
+        features[0] = Long.bitCount(board.getPieces(Board.PLAYER_2) & CENTER_COLUMN_MASK)
+                - Long.bitCount(board.getPieces(Board.PLAYER_1) & CENTER_COLUMN_MASK);
+        features[1] = board.getOpenLines(Board.PLAYER_2, 2) - board.getOpenLines(Board.PLAYER_1, 2);
+        features[2] = board.getOpenLines(Board.PLAYER_2, 3) - board.getOpenLines(Board.PLAYER_1, 3);
+        features[3] = Long.bitCount(board.getThreatMask(Board.PLAYER_2)) - Long.bitCount(board.getThreatMask(Board.PLAYER_1));
+    }
+ 
+    /**
+     * Per-thread search state. Each searching thread owns one, so the hot loop never
+     * touches shared mutable fields apart from the transposition table.
+     */
+    private static final class SearchContext {
+        final BitBoard board;
+        final int rootMoveCount;
+        final MoveOrderer orderer;
+        final int[][] moveBuffers = new int[Board.ROWS * Board.COLS + 1][BitBoard.COLS]; // One per ply
+        long deadlineNanos;
+        volatile boolean stopRequested; // Set by the main thread, read every few nodes
+        boolean aborted;
+        int rootScore;
+        Future<?> task;
+        // Statistics; plain fields owned by this thread, summed after the search
+        long nodes;
+        long leafEvaluations;
+        long betaCutoffs;
+        long firstMoveCutoffs;
+        long ttProbes;
+        long ttHits;
+ 
+        SearchContext(BitBoard board, long deadlineNanos, MoveOrderer orderer) {
+            this.board = board;
+            this.rootMoveCount = board.getMoveCount();
+            this.deadlineNanos = deadlineNanos;
+            this.orderer = orderer;
+        }
+ 
+        void recordCutoff(int moveIndex) {
+            betaCutoffs++;
+            if (moveIndex == 0) {
+                firstMoveCutoffs++;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package connectfour;
+ 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+ 
+/**
+* A simple record-like class to represent a move in Connect Four (just the column).
+* Moves are immutable flyweights: use Move.of(column) instead of allocating new ones.
+*/
+public class Move {
+    private static final Move[] CACHE = new Move[Board.MAX_COLS];
+    // Unmodifiable move lists for every possible 7-bit mask of valid columns on the standard board
+    private static final List<List<Move>> LISTS_BY_MASK = new ArrayList<>();
+ 
+    static {
+        for (int c = 0; c < Board.MAX_COLS; c++) {
+            CACHE[c] = new Move(c);
+        }
+        for (int mask = 0; mask < (1 << Board.COLS); mask++) {
+            LISTS_BY_MASK.add(buildList(mask));
+        }
+    }
+ 
+    private final int column;
+ 
+    private Move(int column) {
+        this.column = column;
+    }
+ 
+    /**
+     * @param column The column index (0 to Board.MAX_COLS - 1).
+     * @return The shared Move instance for that column.
+     */
+    public static Move of(int column) {
+        return CACHE[column];
+    }
+ 
+    /**
+     * @param mask Bit c set means column c is a valid move.
+     * @return An unmodifiable list of the corresponding moves in column order; shared
+     *         for masks of the standard board, allocated for wider boards.
+     */
+    public static List<Move> listOf(int mask) {
+        return mask < LISTS_BY_MASK.size() ? LISTS_BY_MASK.get(mask) : buildList(mask);
+    }
+ 
+    private static List<Move> buildList(int mask) {
+        List<Move> moves = new ArrayList<>();
+        for (int m = mask; m != 0; m &= m - 1) {
+            moves.add(CACHE[Integer.numberOfTrailingZeros(m)]);
+        }
+        return Collections.unmodifiableList(moves);
+    }
+ 
+    public int getColumn() {
+        return column;
+    }
+ 
+    @Override
+    public String toString() {
+        return "Move{" +
+                "column=" + column +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package connectfour;
+ 
+/**
+* Decides the order in which the search tries the legal moves of a position.
+* Alpha-beta prunes the most when the best move is searched first, so this is the main
+* lever on the size of the search tree. Each search thread owns its own instance.
+*/
+public interface MoveOrderer {
+    /**
+     * Writes the legal columns of the position into moves, best candidate first.
+     * @param board The position to move in.
+     * @param player The player to move.
+     * @param ply Distance from the search root (0 at the root).
+     * @param hashMove Best move stored in the transposition table, or TranspositionTable.NO_MOVE.
+     * @param moves Output buffer with room for BitBoard.COLS entries.
+     * @return The number of legal moves written.
+     */
+    int orderMoves(BitBoard board, int player, int ply, int hashMove, int[] moves);
+ 
+    /**
+     * Reports that a move caused a beta cutoff, so it can be tried earlier next time.
+     * @param player The player who made the move.
+     * @param ply Distance from the search root.
+     * @param col The column that caused the cutoff.
+     * @param depth The remaining depth at the node where the cutoff happened.
+     */
+    void recordCutoff(int player, int ply, int col, int depth);
+ 
+    /**
+     * Called before each new root search.
+     */
+    void newSearch();
+}
@@ -0,0 +1,148 @@
+package connectfour;
+ 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+ 
+/**
+* Read-only opening book, memory-mapped from a file written by OpeningBookGenerator.
+* Positions are keyed by the smaller of a position's key and its mirror image's key,
+* so each left-right symmetric pair is stored once; moves are stored for that
+* canonical orientation and flipped back on lookup.
+*
+* File layout (big-endian):
+*   int magic "C4BK", int version, int maxPly, int searchDepth, int entryCount,
+*   long[entryCount] canonical position keys, sorted ascending,
+*   int[entryCount] values: score in the upper 28 bits, column in the lower 4.
+*/
+public final class OpeningBook {
+    public static final int NO_MOVE = -1;
+ 
+    private static final int MAGIC = 0x4334424B; // "C4BK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+ 
+    private final LongBuffer keys;
+    private final IntBuffer values;
+    private final int maxPly;
+    private final int searchDepth;
+ 
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " opening book");
+        }
+        this.maxPly = buffer.getInt(8);
+        this.searchDepth = buffer.getInt(12);
+        int entries = buffer.getInt(16);
+        if (buffer.capacity() != HEADER_BYTES + (long) entries * (Long.BYTES + Integer.BYTES)) {
+            throw new IOException("Truncated opening book: expected " + entries + " entries");
+        }
+        this.keys = buffer.position(HEADER_BYTES).slice().asLongBuffer().limit(entries);
+        this.values = buffer.position(HEADER_BYTES + entries * Long.BYTES).slice().asIntBuffer().limit(entries);
+    }
+ 
+    /**
+     * Memory-maps a book file. The mapping stays valid after the channel is closed.
+     * @param file The book written by OpeningBookGenerator.
+     * @return The opened book.
+     * @throws IOException If the file cannot be read or is not a valid book.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+ 
+    /**
+     * Writes a book file.
+     * @param keys Canonical position keys, sorted ascending, without duplicates.
+     * @param moves Best column per key, for the canonical orientation.
+     * @param scores Score per key, from Player 2's point of view.
+     */
+    public static void write(Path file, int maxPly, int searchDepth, long[] keys, int[] moves, int[] scores)
+            throws IOException {
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(maxPly);
+            out.writeInt(searchDepth);
+            out.writeInt(keys.length);
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                out.writeInt((scores[i] << 4) | moves[i]);
+            }
+        }
+    }
+ 
+    /**
+     * Looks up the book move for a position with Player 2 to move.
+     * @return The column to play, or NO_MOVE if the position is not in the book.
+     */
+    public int probe(BitBoard board) {
+        int index = find(board);
+        if (index < 0) {
+            return NO_MOVE;
+        }
+        int move = values.get(index) & 0xF;
+        return isMirrored(board) ? BitBoard.COLS - 1 - move : move;
+    }
+ 
+    /**
+     * @return The stored score of a position that probe() found, from Player 2's point of view.
+     */
+    public int probeScore(BitBoard board) {
+        int index = find(board);
+        return index < 0 ? 0 : values.get(index) >> 4;
+    }
+ 
+    private int find(BitBoard board) {
+        if (board.getMoveCount() > maxPly) {
+            return -1;
+        }
+        long key = board.getPositionKey();
+        long canonical = Math.min(key, BitBoard.mirror(key));
+        int low = 0;
+        int high = keys.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keys.get(mid);
+            if (midKey < canonical) {
+                low = mid + 1;
+            } else if (midKey > canonical) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+ 
+    // The stored move is for the mirror image when that has the smaller key
+    static boolean isMirrored(BitBoard board) {
+        long key = board.getPositionKey();
+        return BitBoard.mirror(key) < key;
+    }
+ 
+    public int size() {
+        return keys.limit();
+    }
+ 
+    public int getMaxPly() {
+        return maxPly;
+    }
+ 
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+}
@@ -0,0 +1,107 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+ 
+/**
+* Command-line tool that builds the opening book read by OpeningBook.
+* Enumerates every position up to maxPly in which the AI (Player 2) is to move and
+* nobody has won yet, merges mirror images, and searches each remaining position to
+* a fixed depth. Positions are searched in parallel, one single-threaded MinimaxAI
+* per worker.
+*
+* Usage: java -cp connect-four.jar connectfour.OpeningBookGenerator [maxPly] [depth] [output] [threads]
+*/
+public class OpeningBookGenerator {
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int maxPly = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        Path output = Paths.get(args.length > 2 ? args[2] : "opening-book.bin");
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+ 
+        List<String> positions = new ArrayList<>();
+        collectPositions(new BitBoard(), new StringBuilder(), maxPly, new HashSet<>(), positions);
+        System.out.printf("maxPly=%d depth=%d positions=%d threads=%d%n", maxPly, depth, positions.size(), threads);
+ 
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ThreadLocal<MinimaxAI> searchers = ThreadLocal.withInitial(() -> new MinimaxAI(depth, 64));
+        List<Future<long[]>> results = new ArrayList<>();
+        for (String moves : positions) {
+            results.add(pool.submit(() -> solve(searchers.get(), moves)));
+        }
+        long[][] entries = new long[positions.size()][];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = results.get(i).get();
+        }
+        pool.shutdown();
+ 
+        // Sort by canonical key so OpeningBook can binary search
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        long[] keys = new long[entries.length];
+        int[] bookMoves = new int[entries.length];
+        int[] scores = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i][0];
+            bookMoves[i] = (int) entries[i][1];
+            scores[i] = (int) entries[i][2];
+        }
+        OpeningBook.write(output, maxPly, depth, keys, bookMoves, scores);
+        System.out.printf("wrote %d entries to %s in %.1f s%n", keys.length, output, (System.nanoTime() - start) / 1e9);
+    }
+ 
+    // Depth-first walk over move sequences; keeps one representative per canonical position
+    private static void collectPositions(BitBoard board, StringBuilder moves, int maxPly,
+                                         Set<Long> seen, List<String> positions) {
+        int ply = board.getMoveCount();
+        if (ply % 2 == 1 && seen.add(canonicalKey(board))) {
+            positions.add(moves.toString());
+        }
+        if (ply == maxPly) {
+            return;
+        }
+        int player = ply % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (!board.isColumnValid(col)) {
+                continue;
+            }
+            board.makeMove(col, player);
+            if (!board.checkWin(player)) {
+                moves.append(col);
+                collectPositions(board, moves, maxPly, seen, positions);
+                moves.setLength(moves.length() - 1);
+            }
+            board.undoMove(col);
+        }
+    }
+ 
+    // Returns { canonical key, move in the canonical orientation, score }
+    private static long[] solve(MinimaxAI ai, String moves) {
+        Board board = new Board();
+        for (int i = 0; i < moves.length(); i++) {
+            board.makeMove(moves.charAt(i) - '0', i % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2);
+        }
+        ai.clearTranspositionTable(); // Positions are independent; keep every entry reproducible
+        int col = ai.findBestMove(board).getColumn();
+        BitBoard bitBoard = new BitBoard(board);
+        if (OpeningBook.isMirrored(bitBoard)) {
+            col = BitBoard.COLS - 1 - col;
+        }
+        return new long[] { canonicalKey(bitBoard), col, ai.getLastSearchStats().getScore() };
+    }
+ 
+    private static long canonicalKey(BitBoard board) {
+        long key = board.getPositionKey();
+        return Math.min(key, BitBoard.mirror(key));
+    }
+}
@@ -0,0 +1,405 @@
+package connectfour;
+ 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+ 
+/**
+* Persistent cache of deep search results, shared by every MinimaxAI that uses it and
+* kept across games and JVM runs. Results are appended to a memory-mapped log file and
+* indexed in memory by a set-associative table with a fixed entry budget, the hot working
+* set. When a set is full, clock (second-chance) replacement evicts an entry that has not
+* been written since the hand last passed it; evicted entries stay in the file until the
+* next compaction, which runs on open once the log holds more than twice the index size.
+*
+* Keys are BitBoard position keys of the canonical orientation (the smaller of a position's
+* key and its mirror image's, as in OpeningBook) with the top bit set when Player 1 is to
+* move, so they are stable across runs and independent of any table's hashing. Moves are
+* stored for that orientation; scores are in transposition table form, from Player 2's
+* point of view.
+*
+* Search threads never touch the file: record() drops a result into a pending batch under
+* a short lock, and a background writer merges each batch into the index and appends the
+* entries that are new or deeper. Results arriving while the batch is full are dropped.
+*
+* File layout (big-endian):
+*   int magic "C4PS", int version, long reserved,
+*   records of long key, long data (score, depth, bound, move packed as in TranspositionTable),
+*   up to the first zero key; the file grows in zero-filled chunks.
+*/
+public final class PositionStore implements AutoCloseable {
+    // Set on keys of positions with Player 1 to move; position keys only use the low 49 bits
+    public static final long PLAYER_1_TO_MOVE = 1L << 63;
+ 
+    private static final int MAGIC = 0x43345053; // "C4PS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 16;
+    private static final int CHUNK_BYTES = RECORD_BYTES << 16; // The file grows 1 MB at a time
+    private static final int WAYS = 4; // Entries per index set
+    private static final int PENDING_CAPACITY = 1 << 14;
+    private static final long FLUSH_INTERVAL_MS = 100;
+ 
+    private final Path file;
+    private final int minDepth;
+ 
+    // Index, guarded by this
+    private final long[] keys;
+    private final long[] data;
+    private final byte[] referenced; // Clock reference bit per slot
+    private final byte[] hands; // Clock hand per set
+    private final int setMask;
+    private int size;
+    private long evictions;
+    private long recordCount; // Records in the file, superseded ones included
+    private long[] batchKeys = new long[PENDING_CAPACITY];
+    private long[] batchData = new long[PENDING_CAPACITY];
+    private FileChannel channel;
+    private MappedByteBuffer appendBuffer;
+    private long chunkStart;
+ 
+    // Pending batch, guarded by pendingLock
+    private final Object pendingLock = new Object();
+    private long[] pendingKeys = new long[PENDING_CAPACITY];
+    private long[] pendingData = new long[PENDING_CAPACITY];
+    private int pendingCount;
+    private long droppedWrites;
+ 
+    private final Thread writer;
+    private volatile boolean closed;
+ 
+    private PositionStore(Path file, int maxEntries, int minDepth) {
+        if (maxEntries < WAYS) {
+            throw new IllegalArgumentException("Position store needs room for at least " + WAYS + " entries: "
+                    + maxEntries);
+        }
+        this.file = file;
+        this.minDepth = minDepth;
+        int entries = Integer.highestOneBit(maxEntries);
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.referenced = new byte[entries];
+        this.hands = new byte[entries / WAYS];
+        this.setMask = entries / WAYS - 1;
+        this.writer = new Thread(this::runWriter, "position-store-writer");
+        this.writer.setDaemon(true);
+    }
+ 
+    /**
+     * Opens a store, creating the file if it does not exist, and loads its entries into the index.
+     * @param file The log file.
+     * @param maxEntries Budget of the in-memory index; rounded down to a power of two.
+     * @param minDepth Results of shallower searches are not recorded.
+     * @return The opened store; close it to write out the last batch.
+     * @throws IOException If the file cannot be read or written or is not a position store.
+     */
+    public static PositionStore open(Path file, int maxEntries, int minDepth) throws IOException {
+        PositionStore store = new PositionStore(file, maxEntries, minDepth);
+        store.load();
+        store.writer.start();
+        return store;
+    }
+ 
+    private synchronized void load() throws IOException {
+        if (Files.exists(file) && Files.size(file) > 0) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (in.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Position store too large: " + in.size() + " bytes");
+                }
+                ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("Not a version " + VERSION + " position store");
+                }
+                for (int pos = HEADER_BYTES; pos + RECORD_BYTES <= buffer.capacity(); pos += RECORD_BYTES) {
+                    long key = buffer.getLong(pos);
+                    if (key == 0) {
+                        break; // Zero-filled tail of the last chunk
+                    }
+                    insert(key, buffer.getLong(pos + Long.BYTES));
+                    recordCount++;
+                }
+            }
+            if (recordCount > 2L * size) {
+                compact();
+            }
+        } else {
+            writeIndex(file); // An empty store: just the header
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        chunkStart = HEADER_BYTES + recordCount * RECORD_BYTES;
+        appendBuffer = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_BYTES);
+    }
+ 
+    // Replaces the log with just the indexed entries, dropping superseded and evicted records
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        writeIndex(temp);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordCount = size;
+    }
+ 
+    private void writeIndex(Path target) throws IOException {
+        try (OutputStream fileOut = Files.newOutputStream(target);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    out.writeLong(keys[slot]);
+                    out.writeLong(data[slot]);
+                }
+            }
+        }
+    }
+ 
+    /**
+     * The store key of a position.
+     * @param board The position.
+     * @param playerToMove The player whose turn it is.
+     */
+    public static long key(BitBoard board, int playerToMove) {
+        long key = board.getPositionKey();
+        long canonical = Math.min(key, BitBoard.mirror(key));
+        return playerToMove == Board.PLAYER_1 ? canonical | PLAYER_1_TO_MOVE : canonical;
+    }
+ 
+    /**
+     * Converts a move between the board's orientation and the stored one, in either direction.
+     * @param move A column, or TranspositionTable.NO_MOVE, which is returned unchanged.
+     */
+    public static int orient(BitBoard board, int move) {
+        long key = board.getPositionKey();
+        if (move != TranspositionTable.NO_MOVE && BitBoard.mirror(key) < key) {
+            return BitBoard.COLS - 1 - move;
+        }
+        return move;
+    }
+ 
+    /**
+     * Queues a search result for the writer. Never blocks on I/O; results shallower than
+     * getMinDepth(), or arriving while the pending batch is full, are dropped.
+     * @param key The position's store key, see key().
+     * @param score Score in transposition table form, from Player 2's point of view.
+     * @param move Best column in the stored orientation, see orient().
+     */
+    public void record(long key, int score, int depth, int bound, int move) {
+        if (depth < minDepth) {
+            return;
+        }
+        long packed = (score & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) (move & 0xF) << 42);
+        synchronized (pendingLock) {
+            if (pendingCount == PENDING_CAPACITY) {
+                droppedWrites++;
+                return;
+            }
+            pendingKeys[pendingCount] = key;
+            pendingData[pendingCount] = packed;
+            pendingCount++;
+            if (pendingCount == PENDING_CAPACITY / 2) {
+                pendingLock.notifyAll(); // Wake the writer early rather than drop results
+            }
+        }
+    }
+ 
+    /**
+     * Calls the consumer for every indexed entry. Works on a snapshot, so the writer keeps
+     * running meanwhile. Decode the data with TranspositionTable.score/depth/bound/move.
+     */
+    public void forEachEntry(EntryConsumer consumer) {
+        long[] keySnapshot;
+        long[] dataSnapshot;
+        synchronized (this) {
+            keySnapshot = keys.clone();
+            dataSnapshot = data.clone();
+        }
+        for (int slot = 0; slot < keySnapshot.length; slot++) {
+            if (keySnapshot[slot] != 0) {
+                consumer.accept(keySnapshot[slot], dataSnapshot[slot]);
+            }
+        }
+    }
+ 
+    /**
+     * Merges the pending batch into the index and forces the file's appended records to disk.
+     */
+    public synchronized void flush() throws IOException {
+        writeBatch();
+        appendBuffer.force();
+    }
+ 
+    /**
+     * Stops the writer and flushes what it had not written yet. Further results are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (pendingLock) {
+            pendingLock.notifyAll();
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized (this) {
+            flush();
+            channel.close();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+ 
+    private void runWriter() {
+        while (!closed) {
+            synchronized (pendingLock) {
+                if (pendingCount < PENDING_CAPACITY / 2 && !closed) {
+                    try {
+                        pendingLock.wait(FLUSH_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            try {
+                synchronized (this) {
+                    writeBatch();
+                }
+            } catch (IOException e) {
+                System.err.println("Position Store Error: " + e.getMessage());
+                return; // Results pile up and are dropped; close() retries the last batch
+            }
+        }
+    }
+ 
+    // Swaps the pending batch out and appends the results that changed the index. Called with this held.
+    private void writeBatch() throws IOException {
+        int count;
+        synchronized (pendingLock) {
+            long[] swapKeys = pendingKeys;
+            long[] swapData = pendingData;
+            pendingKeys = batchKeys;
+            pendingData = batchData;
+            batchKeys = swapKeys;
+            batchData = swapData;
+            count = pendingCount;
+            pendingCount = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            if (insert(batchKeys[i], batchData[i])) {
+                append(batchKeys[i], batchData[i]);
+            }
+        }
+    }
+ 
+    private void append(long key, long packed) throws IOException {
+        if (!appendBuffer.hasRemaining()) {
+            appendBuffer.force();
+            chunkStart += CHUNK_BYTES;
+            appendBuffer = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_BYTES);
+        }
+        appendBuffer.putLong(key);
+        appendBuffer.putLong(packed);
+        recordCount++;
+    }
+ 
+    /**
+     * Adds or updates an index entry; an existing entry is only replaced by an equal or deeper one.
+     * @return true if the index changed.
+     */
+    private boolean insert(long key, long packed) {
+        int set = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & setMask;
+        int base = set * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way;
+            if (keys[slot] == key) {
+                referenced[slot] = 1;
+                if (data[slot] == packed || TranspositionTable.depth(packed) < TranspositionTable.depth(data[slot])) {
+                    return false;
+                }
+                data[slot] = packed;
+                return true;
+            }
+        }
+        int slot = -1;
+        for (int way = 0; way < WAYS && slot < 0; way++) {
+            if (keys[base + way] == 0) {
+                slot = base + way;
+                size++;
+            }
+        }
+        if (slot < 0) {
+            // Second chance: clear reference bits until the hand finds an unreferenced entry
+            int hand = hands[set];
+            while (referenced[base + hand] != 0) {
+                referenced[base + hand] = 0;
+                hand = (hand + 1) & (WAYS - 1);
+            }
+            slot = base + hand;
+            hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+            evictions++;
+        }
+        keys[slot] = key;
+        data[slot] = packed;
+        referenced[slot] = 1;
+        return true;
+    }
+ 
+    public int getMinDepth() {
+        return minDepth;
+    }
+ 
+    /**
+     * @return Number of entries in the index.
+     */
+    public synchronized int size() {
+        return size;
+    }
+ 
+    public int capacity() {
+        return keys.length;
+    }
+ 
+    /**
+     * @return Number of records in the file, including ones superseded by deeper results or evicted from the index.
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+ 
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+ 
+    public long getDroppedWrites() {
+        synchronized (pendingLock) {
+            return droppedWrites;
+        }
+    }
+ 
+    /**
+     * Receives the entries of forEachEntry.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long data);
+    }
+}
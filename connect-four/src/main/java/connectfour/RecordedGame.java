@@ -0,0 +1,89 @@
+package connectfour;
+ 
+/**
+* One game as kept in a game log: the board variant, the columns played, how long each ply
+* was thought about and how the game ended. Immutable.
+*/
+public final class RecordedGame {
+    public static final int UNFINISHED = 0; // Reset or shut down before the end
+    public static final int PLAYER_1_WON = 1;
+    public static final int PLAYER_2_WON = 2;
+    public static final int DRAW = 3;
+ 
+    private final int rows;
+    private final int cols;
+    private final int connect;
+    private final int result;
+    private final long startMillis;
+    private final byte[] moves;
+    private final int[] moveMillis;
+ 
+    /**
+     * @param result UNFINISHED, PLAYER_1_WON, PLAYER_2_WON or DRAW.
+     * @param startMillis When the game started, in milliseconds since the epoch.
+     * @param moves The column of every ply, Player 1 first.
+     * @param moveMillis The thinking time of every ply in milliseconds.
+     */
+    public RecordedGame(int rows, int cols, int connect, int result, long startMillis, byte[] moves, int[] moveMillis) {
+        if (result < UNFINISHED || result > DRAW) {
+            throw new IllegalArgumentException("Not a result: " + result);
+        }
+        if (moves.length != moveMillis.length) {
+            throw new IllegalArgumentException(moves.length + " moves but " + moveMillis.length + " times");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        this.result = result;
+        this.startMillis = startMillis;
+        this.moves = moves.clone();
+        this.moveMillis = moveMillis.clone();
+    }
+ 
+    /**
+     * Plays the moves on a new board of the recorded size.
+     * @param plies How many of the moves to play, at most getPlies().
+     * @throws IllegalStateException if the record holds an illegal move.
+     */
+    public Board replay(int plies) {
+        Board board = new Board(rows, cols, connect);
+        for (int ply = 0; ply < plies; ply++) {
+            if (!board.makeMove(moves[ply], ply % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2)) {
+                throw new IllegalStateException("Illegal move " + moves[ply] + " at ply " + ply);
+            }
+        }
+        return board;
+    }
+ 
+    public int getRows() {
+        return rows;
+    }
+ 
+    public int getCols() {
+        return cols;
+    }
+ 
+    public int getConnect() {
+        return connect;
+    }
+ 
+    public int getResult() {
+        return result;
+    }
+ 
+    public long getStartMillis() {
+        return startMillis;
+    }
+ 
+    public int getPlies() {
+        return moves.length;
+    }
+ 
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+ 
+    public int getMoveMillis(int ply) {
+        return moveMillis[ply];
+    }
+}
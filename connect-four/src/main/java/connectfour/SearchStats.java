@@ -0,0 +1,147 @@
+package connectfour;
+ 
+import java.util.Arrays;
+ 
+/**
+* Immutable summary of one MinimaxAI.findBestMove call.
+* Counters are summed over all search threads; the principal variation and the
+* iteration times come from the main thread.
+*/
+public final class SearchStats {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final int threads;
+    private final long nodes;
+    private final long leafEvaluations;
+    private final long betaCutoffs;
+    private final long firstMoveCutoffs;
+    private final long ttProbes;
+    private final long ttHits;
+    private final long elapsedNanos;
+    private final long[] iterationNanos;
+    private final int[] principalVariation;
+ 
+    public SearchStats(int bestMove, int score, int depth, int threads, long nodes, long leafEvaluations,
+                       long betaCutoffs, long firstMoveCutoffs, long ttProbes, long ttHits,
+                       long elapsedNanos, long[] iterationNanos, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.threads = threads;
+        this.nodes = nodes;
+        this.leafEvaluations = leafEvaluations;
+        this.betaCutoffs = betaCutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.ttProbes = ttProbes;
+        this.ttHits = ttHits;
+        this.elapsedNanos = elapsedNanos;
+        this.iterationNanos = iterationNanos.clone();
+        this.principalVariation = principalVariation.clone();
+    }
+ 
+    /**
+     * @return The chosen column, or -1 if there was no legal move.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+ 
+    /**
+     * @return The root score from the point of view of the side the AI plays.
+     */
+    public int getScore() {
+        return score;
+    }
+ 
+    /**
+     * @return The deepest fully completed search depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+ 
+    public int getThreads() {
+        return threads;
+    }
+ 
+    public long getNodes() {
+        return nodes;
+    }
+ 
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+ 
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+ 
+    /**
+     * @return Fraction of beta cutoffs caused by the first move searched; close to 1 means good move ordering.
+     */
+    public double getFirstMoveCutoffRatio() {
+        return betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+ 
+    public long getTtProbes() {
+        return ttProbes;
+    }
+ 
+    public long getTtHits() {
+        return ttHits;
+    }
+ 
+    public double getTtHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+ 
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+ 
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+ 
+    /**
+     * @return The N-th root of the node count for depth N: the average number of moves searched per node.
+     */
+    public double getEffectiveBranchingFactor() {
+        return depth == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+ 
+    /**
+     * @return Wall-clock time of each completed iteration, shallowest first.
+     *         A fixed-depth search has a single iteration.
+     */
+    public long[] getIterationNanos() {
+        return iterationNanos.clone();
+    }
+ 
+    /**
+     * @return The expected line of play from the root, as columns, read back from the transposition table.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+ 
+    @Override
+    public String toString() {
+        return "SearchStats{" +
+                "bestMove=" + bestMove +
+                ", score=" + score +
+                ", depth=" + depth +
+                ", threads=" + threads +
+                ", nodes=" + nodes +
+                ", leafEvaluations=" + leafEvaluations +
+                ", betaCutoffs=" + betaCutoffs +
+                ", firstMoveCutoffRatio=" + String.format("%.3f", getFirstMoveCutoffRatio()) +
+                ", ttHits=" + ttHits + "/" + ttProbes +
+                ", elapsedMs=" + elapsedNanos / 1_000_000 +
+                ", nodesPerSecond=" + (long) getNodesPerSecond() +
+                ", effectiveBranchingFactor=" + String.format("%.2f", getEffectiveBranchingFactor()) +
+                ", principalVariation=" + Arrays.toString(principalVariation) +
+                '}';
+    }
+}
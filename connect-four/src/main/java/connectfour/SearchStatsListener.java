@@ -0,0 +1,10 @@
+package connectfour;
+ 
+/**
+* Receives the statistics of every AI search run by a GameController.
+* Called on the AI worker thread; implementations that touch the UI must hand off to it.
+*/
+@FunctionalInterface
+public interface SearchStatsListener {
+    void onSearchCompleted(SearchStats stats);
+}
@@ -0,0 +1,196 @@
+package connectfour;
+ 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+ 
+/**
+* Command-line tool that plays MinimaxAI against MinimaxAI without a display.
+* Two engines, A and B, are each given a fixed depth ("d8") or a time budget per move
+* in milliseconds ("t250"). Games are played in pairs from the same random opening,
+* A moving first in one game and B in the other, so neither engine profits from the
+* opening or from moving first. Games run in parallel, one single-threaded MinimaxAI
+* pair per worker, and each finished game is streamed to the output file as one line:
+*
+*   game first winner plies msA msB moves
+*
+* where first and winner are A or B (winner D for a draw), msA/msB are the total
+* thinking time of each engine, and moves lists the columns played, opening included.
+*
+* Usage: java -cp connect-four.jar connectfour.SelfPlayRunner [games] [engineA] [engineB] [output]
+*                                  [threads] [openingPlies] [seed]
+*/
+public class SelfPlayRunner {
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int DRAW = 2;
+ 
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        EngineSpec engineA = EngineSpec.parse(args.length > 1 ? args[1] : "d6");
+        EngineSpec engineB = EngineSpec.parse(args.length > 2 ? args[2] : "d6");
+        Path output = Paths.get(args.length > 3 ? args[3] : "selfplay.txt");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int openingPlies = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 1L;
+ 
+        EngineSpec[] specs = { engineA, engineB };
+        AtomicIntegerArray wins = new AtomicIntegerArray(3);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ThreadLocal<MinimaxAI[]> engines = ThreadLocal.withInitial(
+                () -> new MinimaxAI[] { engineA.create(), engineB.create() });
+        try (Writer writer = Files.newBufferedWriter(output)) {
+            writer.write(String.format("# A=%s B=%s games=%d openingPlies=%d seed=%d%n",
+                    engineA, engineB, games, openingPlies, seed));
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                results.add(pool.submit(() -> {
+                    GameRecord record = play(engines.get(), specs, game, openingPlies, seed);
+                    wins.incrementAndGet(record.winner);
+                    String line = record.toString();
+                    synchronized (writer) {
+                        writer.write(line);
+                        writer.write('\n');
+                        writer.flush(); // Keep the file usable while a long run is still going
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+ 
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        System.out.printf("A=%s B=%s games=%d A-wins=%d B-wins=%d draws=%d games/hour=%.0f%n", engineA, engineB,
+                games, wins.get(A), wins.get(B), wins.get(DRAW), games / hours);
+    }
+ 
+    // Plays one game; even games let A move first, odd games replay the same opening with B first
+    private static GameRecord play(MinimaxAI[] engines, EngineSpec[] specs, int game, int openingPlies, long seed) {
+        int first = game % 2 == 0 ? A : B;
+        engines[first].setPlayer(Board.PLAYER_1);
+        engines[1 - first].setPlayer(Board.PLAYER_2);
+        for (MinimaxAI engine : engines) {
+            engine.clearTranspositionTable();
+        }
+ 
+        Board board = new Board();
+        BitBoard bitBoard = new BitBoard(); // Mirrors board for the win checks
+        StringBuilder moves = new StringBuilder();
+        long[] thinkNanos = new long[2];
+        Random random = new Random(seed + game / 2);
+        int winner = DRAW;
+        for (int ply = 0; ply < Board.ROWS * Board.COLS; ply++) {
+            int player = ply % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+            int side = ply % 2 == 0 ? first : 1 - first;
+            int col;
+            if (ply < openingPlies) {
+                col = randomMove(bitBoard, player, random);
+            } else {
+                long start = System.nanoTime();
+                col = specs[side].findBestMove(engines[side], board).getColumn();
+                thinkNanos[side] += System.nanoTime() - start;
+            }
+            board.makeMove(col, player);
+            bitBoard.makeMove(col, player);
+            moves.append(col);
+            if (bitBoard.checkWin(player)) {
+                winner = side;
+                break;
+            }
+        }
+        return new GameRecord(game, first, winner, moves.toString(), thinkNanos);
+    }
+ 
+    // A uniformly random column that does not win on the spot, so openings never decide the game
+    static int randomMove(BitBoard board, int player, Random random) {
+        int[] moves = new int[BitBoard.COLS];
+        int count = 0;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (board.isColumnValid(col)) {
+                board.makeMove(col, player);
+                if (!board.checkWin(player)) {
+                    moves[count++] = col;
+                }
+                board.undoMove(col);
+            }
+        }
+        return moves[random.nextInt(count)];
+    }
+ 
+    private static final class GameRecord {
+        private final int game;
+        private final int first;
+        private final int winner;
+        private final String moves;
+        private final long[] thinkNanos;
+ 
+        GameRecord(int game, int first, int winner, String moves, long[] thinkNanos) {
+            this.game = game;
+            this.first = first;
+            this.winner = winner;
+            this.moves = moves;
+            this.thinkNanos = thinkNanos;
+        }
+ 
+        @Override
+        public String toString() {
+            return game + " " + "AB".charAt(first) + " " + "ABD".charAt(winner) + " " + moves.length() + " "
+                    + thinkNanos[A] / 1000000 + " " + thinkNanos[B] / 1000000 + " " + moves;
+        }
+    }
+ 
+    // "d8" searches 8 plies per move, "t250" deepens iteratively for 250 ms per move
+    private static final class EngineSpec {
+        private final String text;
+        private final int depth;
+        private final Duration budget; // null for a fixed depth
+ 
+        private EngineSpec(String text, int depth, Duration budget) {
+            this.text = text;
+            this.depth = depth;
+            this.budget = budget;
+        }
+ 
+        static EngineSpec parse(String text) {
+            int value = Integer.parseInt(text.substring(1));
+            switch (text.charAt(0)) {
+                case 'd':
+                    return new EngineSpec(text, value, null);
+                case 't':
+                    return new EngineSpec(text, 1, Duration.ofMillis(value));
+                default:
+                    throw new IllegalArgumentException("Engine must be d<depth> or t<milliseconds>: " + text);
+            }
+        }
+ 
+        MinimaxAI create() {
+            return new MinimaxAI(depth);
+        }
+ 
+        Move findBestMove(MinimaxAI engine, Board board) {
+            return budget == null ? engine.findBestMove(board) : engine.findBestMove(board, budget);
+        }
+ 
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
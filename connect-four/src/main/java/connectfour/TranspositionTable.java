@@ -0,0 +1,114 @@
+package connectfour;
+
+import java.util.Arrays;
+
+/**
+* Fixed-size transposition table for the Minimax search, built on two primitive arrays.
+* Each slot holds a packed data word (score, depth, bound, best move, generation) and the
+* position key XOR-ed with that word, so a torn or overwritten slot simply fails to match.
+* Replacement is depth-preferred: a slot is only overwritten by an equal or deeper result,
+* unless it was written during an earlier search.
+*/
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // Score is at least the stored value (beta cutoff)
+    public static final int UPPER_BOUND = 3; // Score is at most the stored value (failed low)
+    public static final int NO_MOVE = 15;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+    private int generation;
+
+    /**
+     * Allocates the table up front.
+     * @param sizeMb Memory budget in megabytes; rounded down to a power-of-two entry count.
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Transposition table size must be positive: " + sizeMb);
+        }
+        long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = Math.min(entries, 1L << 30);
+        this.keys = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.indexMask = (int) entries - 1;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key The position hash.
+     * @return The packed entry (decode with score/depth/bound/move), or 0 if there is no entry.
+     */
+    public long probe(long key) {
+        int index = (int) key & indexMask;
+        long entry = data[index];
+        if (entry != 0 && (keys[index] ^ entry) == key) {
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, keeping the existing entry if it is deeper and from the current search.
+     */
+    public void store(long key, int score, int depth, int bound, int move) {
+        int index = (int) key & indexMask;
+        long existing = data[index];
+        if (existing != 0 && generation(existing) == (generation & 0xFF) && depth(existing) > depth) {
+            return;
+        }
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) (move & 0xF) << 42)
+                | ((long) (generation & 0xFF) << 46);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    /**
+     * Marks the start of a new search so entries from earlier moves become replaceable.
+     * They stay probe-able until overwritten.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Empties the table, e.g. when a new game starts.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        generation = 0;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // --- Entry decoding ---
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> 42) & 0xF;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 46) & 0xFF;
+    }
+}
@@ -0,0 +1,435 @@
+package connectfour;
+ 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+ 
+/**
+* Bitboard for any board size Board supports, used by the generic search path.
+* Columns are laid out bottom-up in blocks of rows + 1 bits as in BitBoard, spread over
+* two longs. Boards of up to 64 bits (e.g. 8 x 7) live in the low word and are shifted
+* with single-word operations; larger ones (up to 128 bits, e.g. 9 x 7) shift across
+* both words.
+*
+* makeMove/undoMove keep a Zobrist hash and the piece counts of every window of
+* connect cells up to date, so a player has won exactly when one of its windows is
+* full and checkWin is a lookup. The standard board should use BitBoard, which fixes
+* the geometry at compile time and is faster.
+*/
+public class VariantBitBoard {
+    private static final Map<Integer, Geometry> GEOMETRIES = new ConcurrentHashMap<>();
+ 
+    private final Geometry geometry;
+    private final long[] low = new long[2]; // Bits 0-63 of each player's pieces, indexed by player - 1
+    private final long[] high = new long[2]; // Bits 64-127, only used by boards wider than 64 bits
+    private final int[] height; // Bit index of the next free cell in each column
+    private int moveCount;
+    private long hash;
+    private int validMoves;
+    private final byte[][] windowPieces; // Pieces per window, by player - 1
+    // lineCounts[p][k]: windows holding exactly k of player p's pieces and none of the opponent's
+    private final int[][] lineCounts;
+    // Scratch space for countThreats: runs of own pieces of each length below a cell
+    private final long[] runsLow;
+    private final long[] runsHigh;
+ 
+    /**
+     * Builds a bitboard from the grid representation used by the game controller.
+     * @param board The board to convert, of any supported size.
+     */
+    public VariantBitBoard(Board board) {
+        this.geometry = Geometry.of(board.getRows(), board.getCols(), board.getConnect());
+        this.height = new int[geometry.cols];
+        this.windowPieces = new byte[2][geometry.windowCount];
+        this.lineCounts = new int[2][geometry.connect + 1];
+        this.runsLow = new long[geometry.connect];
+        this.runsHigh = new long[geometry.connect];
+        for (int c = 0; c < geometry.cols; c++) {
+            height[c] = c * geometry.height;
+        }
+        validMoves = (1 << geometry.cols) - 1;
+        lineCounts[0][0] = geometry.windowCount;
+        lineCounts[1][0] = geometry.windowCount;
+        for (int c = 0; c < geometry.cols; c++) {
+            for (int r = geometry.rows - 1; r >= 0; r--) {
+                int cell = board.getCell(r, c);
+                if (cell == Board.EMPTY) {
+                    break;
+                }
+                makeMove(c, cell);
+            }
+        }
+    }
+ 
+    // Copy constructor, only needed once per search (never per node)
+    public VariantBitBoard(VariantBitBoard other) {
+        this.geometry = other.geometry;
+        this.low[0] = other.low[0];
+        this.low[1] = other.low[1];
+        this.high[0] = other.high[0];
+        this.high[1] = other.high[1];
+        this.height = other.height.clone();
+        this.moveCount = other.moveCount;
+        this.hash = other.hash;
+        this.validMoves = other.validMoves;
+        this.windowPieces = new byte[][] { other.windowPieces[0].clone(), other.windowPieces[1].clone() };
+        this.lineCounts = new int[][] { other.lineCounts[0].clone(), other.lineCounts[1].clone() };
+        this.runsLow = new long[geometry.connect];
+        this.runsHigh = new long[geometry.connect];
+    }
+ 
+    /**
+     * Drops a piece for the given player into a column, in place.
+     * @return true if the move was successful, false if the column is full.
+     */
+    public boolean makeMove(int col, int player) {
+        if (!isColumnValid(col)) {
+            return false;
+        }
+        int bit = height[col];
+        if (bit < Long.SIZE) {
+            low[player - 1] |= 1L << bit;
+        } else {
+            high[player - 1] |= 1L << (bit - Long.SIZE);
+        }
+        hash ^= geometry.zobrist[player - 1][bit];
+        addToWindows(bit, player - 1);
+        height[col]++;
+        moveCount++;
+        if (height[col] == col * geometry.height + geometry.rows) {
+            validMoves &= ~(1 << col);
+        }
+        return true;
+    }
+ 
+    /**
+     * Removes the top piece of a column, reverting the matching makeMove.
+     */
+    public void undoMove(int col) {
+        int bit = --height[col];
+        int owner;
+        if (bit < Long.SIZE) {
+            owner = (low[0] & (1L << bit)) != 0 ? 0 : 1;
+            low[owner] &= ~(1L << bit);
+        } else {
+            owner = (high[0] & (1L << (bit - Long.SIZE))) != 0 ? 0 : 1;
+            high[owner] &= ~(1L << (bit - Long.SIZE));
+        }
+        hash ^= geometry.zobrist[owner][bit];
+        removeFromWindows(bit, owner);
+        moveCount--;
+        validMoves |= 1 << col;
+    }
+ 
+    // A window is "open" for a player while the opponent has no piece in it
+    private void addToWindows(int bit, int owner) {
+        byte[] mine = windowPieces[owner];
+        byte[] theirs = windowPieces[1 - owner];
+        int[] myLines = lineCounts[owner];
+        int[] theirLines = lineCounts[1 - owner];
+        for (int w : geometry.cellWindows[bit]) {
+            int a = mine[w];
+            int b = theirs[w];
+            if (b == 0) {
+                myLines[a]--;
+                myLines[a + 1]++;
+            } else if (a == 0) {
+                theirLines[b]--;
+            }
+            mine[w] = (byte) (a + 1);
+        }
+    }
+ 
+    private void removeFromWindows(int bit, int owner) {
+        byte[] mine = windowPieces[owner];
+        byte[] theirs = windowPieces[1 - owner];
+        int[] myLines = lineCounts[owner];
+        int[] theirLines = lineCounts[1 - owner];
+        for (int w : geometry.cellWindows[bit]) {
+            int a = mine[w] - 1;
+            int b = theirs[w];
+            if (b == 0) {
+                myLines[a + 1]--;
+                myLines[a]++;
+            } else if (a == 0) {
+                theirLines[b]++;
+            }
+            mine[w] = (byte) a;
+        }
+    }
+ 
+    public boolean isColumnValid(int col) {
+        if (col < 0 || col >= geometry.cols) {
+            return false;
+        }
+        return (validMoves & (1 << col)) != 0;
+    }
+ 
+    /**
+     * @return A mask where bit c is set if column c is not full. Maintained incrementally.
+     */
+    public int getValidMovesMask() {
+        return validMoves;
+    }
+ 
+    /**
+     * Checks whether the player has connect pieces in a row anywhere on the board.
+     * A full window is counted by makeMove, so this costs one array read.
+     */
+    public boolean checkWin(int player) {
+        return lineCounts[player - 1][geometry.connect] != 0;
+    }
+ 
+    public boolean isDraw() {
+        return moveCount == geometry.cells;
+    }
+ 
+    /**
+     * Number of windows in which the player has exactly the given number of pieces and
+     * the opponent none. Maintained incrementally by makeMove/undoMove.
+     */
+    public int getOpenLines(int player, int pieces) {
+        return lineCounts[player - 1][pieces];
+    }
+ 
+    /**
+     * @return The player's pieces in the center column, or in the two center columns
+     *         when the number of columns is even.
+     */
+    public int countCenterPieces(int player) {
+        return Long.bitCount(low[player - 1] & geometry.centerLow) + Long.bitCount(high[player - 1] & geometry.centerHigh);
+    }
+ 
+    /**
+     * Counts the distinct empty cells that would complete connect in a row for the
+     * player if the player owned them, with a fixed number of shifts per direction.
+     */
+    public int countThreats(int player) {
+        long emptyLow = geometry.boardLow & ~(low[0] | low[1]);
+        if (!geometry.wide) {
+            long p = low[player - 1];
+            long r = runThreats(p, 1) | runThreats(p, geometry.height)
+                    | runThreats(p, geometry.height + 1) | runThreats(p, geometry.height - 1);
+            return Long.bitCount(r & emptyLow);
+        }
+        long emptyHigh = geometry.boardHigh & ~(high[0] | high[1]);
+        long pLow = low[player - 1];
+        long pHigh = high[player - 1];
+        long rLow = 0;
+        long rHigh = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            runThreats(pLow, pHigh, direction == 0 ? 1 : geometry.height + direction - 2);
+            rLow |= runsLow[0];
+            rHigh |= runsHigh[0];
+        }
+        return Long.bitCount(rLow & emptyLow) + Long.bitCount(rHigh & emptyHigh);
+    }
+ 
+    // Cells with a own pieces on one side and connect - 1 - a on the other, for any a
+    private long runThreats(long p, int shift) {
+        int n = geometry.connect;
+        long[] below = runsLow;
+        below[0] = -1L;
+        for (int j = 1; j < n; j++) {
+            below[j] = below[j - 1] & shiftLeft(p, j * shift);
+        }
+        long above = -1L;
+        long r = below[n - 1];
+        for (int a = 1; a < n; a++) {
+            above &= shiftRight(p, a * shift);
+            r |= above & below[n - 1 - a];
+        }
+        return r;
+    }
+ 
+    // The same across both words; leaves the result in runsLow[0] and runsHigh[0]
+    private void runThreats(long pLow, long pHigh, int shift) {
+        int n = geometry.connect;
+        runsLow[0] = -1L;
+        runsHigh[0] = -1L;
+        for (int j = 1; j < n; j++) {
+            int s = j * shift;
+            runsLow[j] = runsLow[j - 1] & shiftLeft(pLow, s);
+            runsHigh[j] = runsHigh[j - 1] & (s < Long.SIZE
+                    ? shiftLeft(pHigh, s) | (s == 0 ? 0 : pLow >>> (Long.SIZE - s))
+                    : shiftLeft(pLow, s - Long.SIZE));
+        }
+        long aboveLow = -1L;
+        long aboveHigh = -1L;
+        long rLow = runsLow[n - 1];
+        long rHigh = runsHigh[n - 1];
+        for (int a = 1; a < n; a++) {
+            int s = a * shift;
+            aboveLow &= s < Long.SIZE
+                    ? shiftRight(pLow, s) | pHigh << (Long.SIZE - s)
+                    : shiftRight(pHigh, s - Long.SIZE);
+            aboveHigh &= shiftRight(pHigh, s);
+            rLow |= aboveLow & runsLow[n - 1 - a];
+            rHigh |= aboveHigh & runsHigh[n - 1 - a];
+        }
+        runsLow[0] = rLow;
+        runsHigh[0] = rHigh;
+    }
+ 
+    // Java only uses the low six bits of a shift distance; longer shifts must clear the word
+    private static long shiftLeft(long bits, int distance) {
+        return distance < Long.SIZE ? bits << distance : 0;
+    }
+ 
+    private static long shiftRight(long bits, int distance) {
+        return distance < Long.SIZE ? bits >>> distance : 0;
+    }
+ 
+    /**
+     * @return The Zobrist hash of the current position (pieces only, not side to move).
+     */
+    public long getHash() {
+        return hash;
+    }
+ 
+    public int getMoveCount() {
+        return moveCount;
+    }
+ 
+    /**
+     * @return The columns ordered from the center outwards, left before right.
+     */
+    public int[] getCenterFirstOrder() {
+        return geometry.centerFirst.clone();
+    }
+ 
+    // Row 0 is the top row, matching Board.getCell
+    public int getCell(int r, int c) {
+        int bit = c * geometry.height + geometry.rows - 1 - r;
+        long[] words = bit < Long.SIZE ? low : high;
+        long mask = 1L << (bit % Long.SIZE);
+        if ((words[0] & mask) != 0) {
+            return Board.PLAYER_1;
+        }
+        if ((words[1] & mask) != 0) {
+            return Board.PLAYER_2;
+        }
+        return Board.EMPTY;
+    }
+ 
+    public int getRows() {
+        return geometry.rows;
+    }
+ 
+    public int getCols() {
+        return geometry.cols;
+    }
+ 
+    public int getConnect() {
+        return geometry.connect;
+    }
+ 
+    /**
+     * Everything that depends only on the board size: the window lists, Zobrist keys and
+     * masks. Built once per size and shared by all boards of that size.
+     */
+    private static final class Geometry {
+        final int rows;
+        final int cols;
+        final int connect;
+        final int height; // Bits per column, including the sentinel
+        final int cells;
+        final boolean wide; // More than 64 bits: the high word is in use
+        final long[][] zobrist;
+        final int[][] cellWindows;
+        final int windowCount;
+        final long boardLow;
+        final long boardHigh;
+        final long centerLow;
+        final long centerHigh;
+        final int[] centerFirst;
+ 
+        static Geometry of(int rows, int cols, int connect) {
+            return GEOMETRIES.computeIfAbsent(rows << 16 | cols << 8 | connect, k -> new Geometry(rows, cols, connect));
+        }
+ 
+        private Geometry(int rows, int cols, int connect) {
+            this.rows = rows;
+            this.cols = cols;
+            this.connect = connect;
+            this.height = rows + 1;
+            this.cells = rows * cols;
+            int bits = cols * height;
+            this.wide = bits > Long.SIZE;
+ 
+            // Fixed seed per size so hashes are stable across runs
+            Random random = new Random(0x5EEDC4L ^ (rows << 16 | cols << 8 | connect));
+            this.zobrist = new long[2][bits];
+            for (int p = 0; p < 2; p++) {
+                for (int i = 0; i < bits; i++) {
+                    zobrist[p][i] = random.nextLong();
+                }
+            }
+ 
+            int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}}; // {dCol, dRow}
+            int[] windowsPerCell = new int[bits];
+            int[][] windowsByCell = new int[bits][4 * connect];
+            int windows = 0;
+            for (int[] d : directions) {
+                for (int c = 0; c < cols; c++) {
+                    for (int r = 0; r < rows; r++) {
+                        int endCol = c + (connect - 1) * d[0];
+                        int endRow = r + (connect - 1) * d[1];
+                        if (endCol >= cols || endRow < 0 || endRow >= rows) {
+                            continue;
+                        }
+                        for (int i = 0; i < connect; i++) {
+                            int bit = (c + i * d[0]) * height + r + i * d[1];
+                            windowsByCell[bit][windowsPerCell[bit]++] = windows;
+                        }
+                        windows++;
+                    }
+                }
+            }
+            this.windowCount = windows;
+            this.cellWindows = new int[bits][];
+            for (int bit = 0; bit < bits; bit++) {
+                cellWindows[bit] = Arrays.copyOf(windowsByCell[bit], windowsPerCell[bit]);
+            }
+ 
+            long bLow = 0;
+            long bHigh = 0;
+            long cLow = 0;
+            long cHigh = 0;
+            for (int c = 0; c < cols; c++) {
+                boolean center = c == cols / 2 || (cols % 2 == 0 && c == cols / 2 - 1);
+                for (int r = 0; r < rows; r++) {
+                    int bit = c * height + r;
+                    if (bit < Long.SIZE) {
+                        bLow |= 1L << bit;
+                        cLow |= center ? 1L << bit : 0;
+                    } else {
+                        bHigh |= 1L << (bit - Long.SIZE);
+                        cHigh |= center ? 1L << (bit - Long.SIZE) : 0;
+                    }
+                }
+            }
+            this.boardLow = bLow;
+            this.boardHigh = bHigh;
+            this.centerLow = cLow;
+            this.centerHigh = cHigh;
+ 
+            // Even widths have two center columns; the left one goes first
+            this.centerFirst = new int[cols];
+            int center = (cols - 1) / 2;
+            centerFirst[0] = center;
+            for (int i = 1, offset = 1; i < cols; offset++) {
+                if (cols % 2 == 0 && center + offset < cols) {
+                    centerFirst[i++] = center + offset;
+                }
+                if (i < cols && center - offset >= 0) {
+                    centerFirst[i++] = center - offset;
+                }
+                if (cols % 2 != 0 && i < cols && center + offset < cols) {
+                    centerFirst[i++] = center + offset;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package connectfour;
+ 
+import java.time.Duration;
+import java.util.Arrays;
+ 
+/**
+* Generic search for boards other than the standard 7 x 6 connect four: any size Board
+* supports and any connect length. MinimaxAI hands such boards to this class and keeps
+* its specialized BitBoard search for the standard game.
+*
+* It is the same alpha-beta search with a transposition table, written as negamax over
+* a VariantBitBoard, and it evaluates with the same EvaluationWeights: pieces in the
+* center column(s), windows one and two pieces short of connect, and threat cells.
+* Moves are tried hash move first, then from the center outwards. There is no opening
+* book, endgame solver or parallel search, which only exist for the standard board.
+* Scores use MinimaxAI's scale, from the point of view of the side the AI plays.
+*/
+public class VariantMinimaxAI {
+    private static final int WIN_SCORE = 1000000;
+    // Scores beyond this are wins/losses adjusted by distance, never heuristic values
+    private static final int WIN_THRESHOLD = WIN_SCORE - Board.MAX_BITS;
+    private static final int INFINITY = Integer.MAX_VALUE; // Negatable, unlike Integer.MIN_VALUE
+    private static final long SIDE_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+    private static final int TIME_CHECK_INTERVAL_MASK = 1024 - 1;
+ 
+    private final TranspositionTable transpositionTable;
+    private int searchDepth;
+    private int player = Board.PLAYER_2;
+    private EvaluationWeights weights = EvaluationWeights.configured();
+    private SearchStats lastSearchStats;
+ 
+    // State of the search in progress; one search at a time, like MinimaxAI
+    private VariantBitBoard board;
+    private int[] centerFirst;
+    private int[][] moveBuffers;
+    private long deadlineNanos;
+    private boolean aborted;
+    private int rootScore;
+    private long nodes;
+    private long leafEvaluations;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long ttProbes;
+    private long ttHits;
+ 
+    /**
+     * @param depth The search depth in plies.
+     * @param ttSizeMb Memory budget of the transposition table in megabytes.
+     */
+    public VariantMinimaxAI(int depth, int ttSizeMb) {
+        this.searchDepth = depth;
+        this.transpositionTable = new TranspositionTable(ttSizeMb);
+    }
+ 
+    public void setSearchDepth(int depth) {
+        this.searchDepth = depth;
+    }
+ 
+    /**
+     * Sets which side this AI plays. Defaults to Player 2, which moves second.
+     */
+    public void setPlayer(int player) {
+        if (player != Board.PLAYER_1 && player != Board.PLAYER_2) {
+            throw new IllegalArgumentException("Not a player: " + player);
+        }
+        this.player = player;
+    }
+ 
+    public void setEvaluationWeights(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+ 
+    /**
+     * @return Statistics of the most recent findBestMove call, or null before the first search.
+     */
+    public SearchStats getLastSearchStats() {
+        return lastSearchStats;
+    }
+ 
+    /**
+     * Forgets everything learned so far. Call when a new game starts.
+     */
+    public void clearTranspositionTable() {
+        transpositionTable.clear();
+    }
+ 
+    /**
+     * Searches to the fixed depth.
+     * @return The best Move, or null if there is no legal move or the search was interrupted.
+     */
+    public Move findBestMove(Board position) {
+        long startNanos = System.nanoTime();
+        startSearch(position);
+        int bestCol = searchRoot(searchDepth, TranspositionTable.NO_MOVE);
+        long[] iterationNanos = { System.nanoTime() - startNanos };
+        recordStats(bestCol, searchDepth, startNanos, iterationNanos);
+        return bestCol < 0 ? null : Move.of(bestCol);
+    }
+ 
+    /**
+     * Iterative deepening within a time budget, see MinimaxAI.findBestMove(Board, Duration).
+     * @return The best Move of the deepest completed iteration, or null if there is none.
+     */
+    public Move findBestMove(Board position, Duration budget) {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + budget.toNanos();
+        startSearch(position);
+        int maxDepth = position.getRows() * position.getCols() - board.getMoveCount();
+        long[] iterationNanos = new long[Math.max(maxDepth, 1)];
+        int bestCol = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        long iterationStart = startNanos;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            // The first iteration always completes so there is a move to return
+            deadlineNanos = depth == 1 ? Long.MAX_VALUE : deadline;
+            int col = searchRoot(depth, bestCol < 0 ? TranspositionTable.NO_MOVE : bestCol);
+            if (aborted) {
+                break;
+            }
+            bestCol = col;
+            bestScore = rootScore;
+            completedDepth = depth;
+            long now = System.nanoTime();
+            iterationNanos[completedDepth - 1] = now - iterationStart;
+            iterationStart = now;
+            if (Math.abs(rootScore) >= WIN_THRESHOLD || now >= deadline) {
+                break;
+            }
+        }
+        rootScore = bestScore;
+        recordStats(bestCol, completedDepth, startNanos, Arrays.copyOf(iterationNanos, completedDepth));
+        return bestCol < 0 ? null : Move.of(bestCol);
+    }
+ 
+    private void startSearch(Board position) {
+        board = new VariantBitBoard(position);
+        centerFirst = board.getCenterFirstOrder();
+        moveBuffers = new int[position.getRows() * position.getCols() + 1][position.getCols()];
+        deadlineNanos = Long.MAX_VALUE;
+        aborted = false;
+        nodes = 0;
+        leafEvaluations = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        transpositionTable.newSearch();
+    }
+ 
+    private void recordStats(int bestCol, int depth, long startNanos, long[] iterationNanos) {
+        lastSearchStats = new SearchStats(bestCol, rootScore, depth, 1, nodes, leafEvaluations, betaCutoffs,
+                firstMoveCutoffs, ttProbes, ttHits, System.nanoTime() - startNanos, iterationNanos,
+                principalVariation(depth));
+    }
+ 
+    /**
+     * Searches all root moves to the given depth, pvCol first.
+     * @return The best column, or -1 if there is no legal move or the search was aborted.
+     */
+    private int searchRoot(int depth, int pvCol) {
+        long rootKey = ttKey(board, player);
+        long entry = transpositionTable.probe(rootKey);
+        if (entry != 0 && TranspositionTable.bound(entry) == TranspositionTable.EXACT
+                && TranspositionTable.depth(entry) >= depth
+                && board.isColumnValid(TranspositionTable.move(entry))) {
+            rootScore = scoreFromTable(TranspositionTable.score(entry), depth);
+            return TranspositionTable.move(entry);
+        }
+ 
+        int[] moves = moveBuffers[0];
+        int moveCount = orderMoves(pvCol, moves);
+        int bestScore = -INFINITY;
+        int bestCol = -1;
+        for (int i = 0; i < moveCount; i++) {
+            int col = moves[i];
+            board.makeMove(col, player);
+            int score = -negamax(depth - 1, -INFINITY, -bestScore, opponent(player));
+            board.undoMove(col);
+            if (aborted) {
+                return -1;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestCol = col;
+            }
+        }
+        if (bestCol >= 0) {
+            transpositionTable.store(rootKey, scoreToTable(bestScore, depth), depth,
+                    TranspositionTable.EXACT, bestCol);
+        }
+        rootScore = bestScore;
+        return bestCol;
+    }
+ 
+    // Scores are from the point of view of sideToMove
+    private int negamax(int depth, int alpha, int beta, int sideToMove) {
+        if ((++nodes & TIME_CHECK_INTERVAL_MASK) == 0
+                && (System.nanoTime() > deadlineNanos || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+ 
+        // Only the side that just moved can have completed a line
+        if (board.checkWin(opponent(sideToMove))) {
+            return -WIN_SCORE - depth; // Prefer slower losses and faster wins
+        }
+        if (depth == 0) {
+            leafEvaluations++;
+            return evaluate(board, sideToMove);
+        }
+        if (board.isDraw()) {
+            return 0;
+        }
+ 
+        long key = ttKey(board, sideToMove);
+        long entry = transpositionTable.probe(key);
+        ttProbes++;
+        if (entry != 0) {
+            ttHits++;
+        }
+        int hashMove = entry != 0 ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = scoreFromTable(TranspositionTable.score(entry), depth);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT) {
+                return ttScore;
+            } else if (bound == TranspositionTable.LOWER_BOUND) {
+                alpha = Math.max(alpha, ttScore);
+            } else {
+                beta = Math.min(beta, ttScore);
+            }
+            if (beta <= alpha) {
+                return ttScore;
+            }
+        }
+ 
+        int alphaOrig = alpha;
+        int[] moves = moveBuffers[board.getMoveCount()];
+        int moveCount = orderMoves(hashMove, moves);
+        int bestScore = -INFINITY;
+        int bestCol = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < moveCount; i++) {
+            int col = moves[i];
+            board.makeMove(col, sideToMove);
+            int score = -negamax(depth - 1, -beta, -alpha, opponent(sideToMove));
+            board.undoMove(col);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestCol = col;
+            }
+            alpha = Math.max(alpha, bestScore);
+            if (beta <= alpha) {
+                betaCutoffs++;
+                if (i == 0) {
+                    firstMoveCutoffs++;
+                }
+                break;
+            }
+        }
+ 
+        int bound;
+        if (bestScore <= alphaOrig) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        transpositionTable.store(key, scoreToTable(bestScore, depth), depth, bound, bestCol);
+        return bestScore;
+    }
+ 
+    // The preferred move first, then the rest from the center outwards
+    private int orderMoves(int preferred, int[] moves) {
+        int count = 0;
+        if (board.isColumnValid(preferred)) {
+            moves[count++] = preferred;
+        }
+        for (int col : centerFirst) {
+            if (col != preferred && board.isColumnValid(col)) {
+                moves[count++] = col;
+            }
+        }
+        return count;
+    }
+ 
+    /**
+     * The evaluation of MinimaxAI.evaluate for any connect length: "three" and "two"
+     * become windows one and two pieces short of connect.
+     * @return The score from sideToMove's point of view.
+     */
+    public int evaluate(VariantBitBoard position, int sideToMove) {
+        int other = opponent(sideToMove);
+        int connect = position.getConnect();
+        int score = weights.getCenterPiece() * (position.countCenterPieces(sideToMove) - position.countCenterPieces(other));
+        score += weights.getOpenTwo() * (position.getOpenLines(sideToMove, connect - 2) - position.getOpenLines(other, connect - 2));
+        score += weights.getOpenThree() * (position.getOpenLines(sideToMove, connect - 1) - position.getOpenLines(other, connect - 1));
+        score += weights.getThreat() * (position.countThreats(sideToMove) - position.countThreats(other));
+        return score;
+    }
+ 
+    // Follows the best moves stored in the transposition table from the root
+    private int[] principalVariation(int maxLength) {
+        VariantBitBoard line = new VariantBitBoard(board);
+        int[] moves = new int[maxLength];
+        int length = 0;
+        int side = player;
+        while (length < maxLength && !line.checkWin(Board.PLAYER_1) && !line.checkWin(Board.PLAYER_2)) {
+            long entry = transpositionTable.probe(ttKey(line, side));
+            if (entry == 0 || !line.isColumnValid(TranspositionTable.move(entry))) {
+                break;
+            }
+            moves[length] = TranspositionTable.move(entry);
+            line.makeMove(moves[length++], side);
+            side = opponent(side);
+        }
+        return Arrays.copyOf(moves, length);
+    }
+ 
+    private static long ttKey(VariantBitBoard position, int sideToMove) {
+        return sideToMove == Board.PLAYER_1 ? position.getHash() ^ SIDE_TO_MOVE_KEY : position.getHash();
+    }
+ 
+    private static int opponent(int side) {
+        return side == Board.PLAYER_1 ? Board.PLAYER_2 : Board.PLAYER_1;
+    }
+ 
+    // Win scores encode the remaining depth; store them relative to this node
+    private static int scoreToTable(int score, int depth) {
+        if (score >= WIN_THRESHOLD) {
+            return score - depth;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score + depth;
+        }
+        return score;
+    }
+ 
+    private static int scoreFromTable(int score, int depth) {
+        if (score >= WIN_THRESHOLD) {
+            return score + depth;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score - depth;
+        }
+        return score;
+    }
+}
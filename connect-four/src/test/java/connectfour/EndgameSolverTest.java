@@ -0,0 +1,109 @@
+package connectfour;
+ 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+ 
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+ 
+/**
+* Checks EndgameSolver against positions with known scores, listed in endgame-scores.csv,
+* and against a plain negamax on random positions with few empty cells.
+*/
+class EndgameSolverTest {
+    private static final int CELLS = Board.ROWS * Board.COLS;
+    private static final int RANDOM_POSITIONS = 200;
+ 
+    @ParameterizedTest
+    @CsvFileSource(resources = "/connectfour/endgame-scores.csv")
+    void solvesKnownPositions(String moves, int expected) {
+        EndgameSolver solver = new EndgameSolver(64);
+        BitBoard board = boardFromMoves(moves);
+        int player = sideToMove(board);
+ 
+        int col = solver.bestMove(board, player, Long.MAX_VALUE);
+ 
+        assertEquals(expected, solver.getLastScore());
+        assertEquals(expected, scoreAfter(board, player, col, solver), "move " + col + " does not keep the score");
+    }
+ 
+    @Test
+    void matchesPlainNegamaxOnRandomEndgames() {
+        EndgameSolver solver = new EndgameSolver(64);
+        Random random = new Random(42);
+        int checked = 0;
+        while (checked < RANDOM_POSITIONS) {
+            BitBoard board = randomPosition(random, 28 + random.nextInt(8));
+            if (board == null) {
+                continue;
+            }
+            int player = sideToMove(board);
+            assertEquals(negamax(board, player, -CELLS, CELLS), solver.solve(board, player, Long.MAX_VALUE),
+                    "position " + checked);
+            checked++;
+        }
+    }
+ 
+    // The score the side to move keeps by playing col: the child's score, negated
+    private static int scoreAfter(BitBoard board, int player, int col, EndgameSolver solver) {
+        board.makeMove(col, player);
+        int score = board.checkWin(player) ? (CELLS + 1 - board.getMoveCount() + 1) / 2
+                : -solver.solve(board, Board.PLAYER_1 + Board.PLAYER_2 - player, Long.MAX_VALUE);
+        board.undoMove(col);
+        return score;
+    }
+ 
+    // Reference implementation: exhaustive alpha-beta without any of the solver's pruning
+    private static int negamax(BitBoard board, int player, int alpha, int beta) {
+        int moveCount = board.getMoveCount();
+        if (moveCount == CELLS) {
+            return 0;
+        }
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (board.isColumnValid(col)) {
+                board.makeMove(col, player);
+                boolean wins = board.checkWin(player);
+                board.undoMove(col);
+                if (wins) {
+                    return (CELLS + 1 - moveCount) / 2;
+                }
+            }
+        }
+        int best = -CELLS;
+        for (int col = 0; col < BitBoard.COLS && alpha < beta; col++) {
+            if (board.isColumnValid(col)) {
+                board.makeMove(col, player);
+                int score = -negamax(board, Board.PLAYER_1 + Board.PLAYER_2 - player, -beta, -alpha);
+                board.undoMove(col);
+                best = Math.max(best, score);
+                alpha = Math.max(alpha, score);
+            }
+        }
+        return best;
+    }
+ 
+    private static BitBoard randomPosition(Random random, int plies) {
+        BitBoard board = new BitBoard();
+        while (board.getMoveCount() < plies) {
+            int col = random.nextInt(BitBoard.COLS);
+            int player = sideToMove(board);
+            if (board.makeMove(col, player) && board.checkWin(player)) {
+                return null; // Already decided; draw another one
+            }
+        }
+        return board;
+    }
+ 
+    private static BitBoard boardFromMoves(String moves) {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < moves.length(); i++) {
+            board.makeMove(moves.charAt(i) - '0', sideToMove(board));
+        }
+        return board;
+    }
+ 
+    private static int sideToMove(BitBoard board) {
+        return board.getMoveCount() % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2;
+    }
+}
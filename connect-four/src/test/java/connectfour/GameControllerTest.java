@@ -0,0 +1,158 @@
+package connectfour;
+ 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+ 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+ 
+/**
+* Concurrency tests for GameController. Several threads hammer one controller with resets
+* and human moves while its AI searches, and every board the controller publishes is
+* checked: players alternate and Player 1 moves first, so Player 1 always has as many
+* pieces as Player 2 or one more. A stale search that played into a fresh game breaks that
+* immediately.
+*/
+class GameControllerTest {
+    private static final int HAMMER_THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 20000;
+    private static final int SHUTDOWN_ROUNDS = 20;
+ 
+    @TempDir
+    Path tempDir;
+ 
+    @Test
+    void concurrentResetsAndMovesNeverPublishAnUnreachableBoard() throws Exception {
+        AtomicLong boards = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        ExecutorService aiPool = Executors.newSingleThreadExecutor();
+        ThreadLocal<MinimaxAI> ai = ThreadLocal.withInitial(() -> new MinimaxAI(4));
+        GameController controller = new GameController(board -> {
+            boards.incrementAndGet();
+            if (!isReachable(board)) {
+                violations.incrementAndGet();
+            }
+        }, message -> { }, ai::get, aiPool);
+        controller.setAIMoveDelay(Duration.ZERO);
+        controller.setAIDifficulty(4);
+        try {
+            List<Thread> hammers = new ArrayList<>();
+            for (int t = 0; t < HAMMER_THREADS; t++) {
+                long seed = t;
+                Thread hammer = new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        if (random.nextInt(20) == 0) {
+                            controller.resetGame();
+                        } else {
+                            controller.handleHumanMove(random.nextInt(Board.COLS));
+                        }
+                    }
+                });
+                hammers.add(hammer);
+                hammer.start();
+            }
+            for (Thread hammer : hammers) {
+                hammer.join();
+            }
+        } finally {
+            controller.shutdown();
+            aiPool.shutdownNow();
+            aiPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        assertTrue(boards.get() > 0);
+        assertEquals(0, violations.get(), "unreachable boards published");
+    }
+ 
+    @Test
+    void resetReleasesTheWorkerFromADeepSearch() throws Exception {
+        ExecutorService aiPool = Executors.newSingleThreadExecutor();
+        MinimaxAI ai = new MinimaxAI(20);
+        GameController controller = new GameController(board -> { }, message -> { }, () -> ai, aiPool);
+        controller.setAIMoveDelay(Duration.ZERO);
+        controller.setAIDifficulty(20);
+        try {
+            controller.handleHumanMove(3);
+            Thread.sleep(100);
+            controller.resetGame();
+            // Runs once the cancelled search has let go of the worker; a depth-20 search would take minutes
+            aiPool.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        } finally {
+            controller.shutdown();
+            aiPool.shutdownNow();
+            aiPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+ 
+    @Test
+    void shutdownWaitsForTheSearchBeforeClosingTheStoreAndLog() throws Exception {
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errors, true));
+        try {
+            for (int round = 0; round < SHUTDOWN_ROUNDS; round++) {
+                Path log = tempDir.resolve("games-" + round + ".log");
+                System.setProperty("connectfour.positionStore", tempDir.resolve("positions-" + round + ".bin").toString());
+                System.setProperty("connectfour.gameLog", log.toString());
+                GameController controller = new GameController(board -> { }, message -> { });
+                controller.setAIMoveDelay(Duration.ZERO);
+                controller.setAIDifficulty(20);
+                controller.handleHumanMove(3);
+                Thread.sleep(round % 5 * 10); // Shut down at different points of the search
+ 
+                controller.shutdown();
+ 
+                assertTrue(noThreadIsSearching(), "a search outlived shutdown in round " + round);
+                controller.resetGame(); // Nothing may be queued on the terminated worker
+                controller.handleHumanMove(3);
+                controller.shutdown();
+                try (GameLogReader reader = GameLogReader.open(log)) {
+                    RecordedGame game = reader.next();
+                    assertNotNull(game);
+                    assertEquals(RecordedGame.UNFINISHED, game.getResult());
+                    assertNull(reader.next());
+                }
+            }
+        } finally {
+            System.clearProperty("connectfour.positionStore");
+            System.clearProperty("connectfour.gameLog");
+            System.setErr(err);
+        }
+        assertEquals("", errors.toString());
+    }
+ 
+    private static boolean noThreadIsSearching() {
+        for (StackTraceElement[] stack : Thread.getAllStackTraces().values()) {
+            for (StackTraceElement frame : stack) {
+                if (frame.getClassName().equals(MinimaxAI.class.getName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+ 
+    private static boolean isReachable(Board board) {
+        int difference = 0;
+        for (int r = 0; r < Board.ROWS; r++) {
+            for (int c = 0; c < Board.COLS; c++) {
+                int cell = board.getCell(r, c);
+                difference += cell == Board.PLAYER_1 ? 1 : cell == Board.PLAYER_2 ? -1 : 0;
+            }
+        }
+        return difference == 0 || difference == 1;
+    }
+}
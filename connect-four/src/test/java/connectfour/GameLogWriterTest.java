@@ -0,0 +1,35 @@
+package connectfour;
+ 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+ 
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+ 
+class GameLogWriterTest {
+    @TempDir
+    Path tempDir;
+ 
+    @Test
+    void lastGameReachesTheFileWithoutAnotherAppend() throws Exception {
+        Path log = tempDir.resolve("games.log");
+        try (GameLogWriter writer = GameLogWriter.open(log)) {
+            writer.append(new RecordedGame(Board.ROWS, Board.COLS, Board.CONNECT, RecordedGame.UNFINISHED,
+                    System.currentTimeMillis(), new byte[] { 3, 3, 4 }, new int[] { 0, 120, 0 }));
+            writer.append(new RecordedGame(Board.ROWS, Board.COLS, Board.CONNECT, RecordedGame.UNFINISHED,
+                    System.currentTimeMillis(), new byte[] { 2 }, new int[] { 0 }));
+ 
+            Thread.sleep(2500); // One flush interval, with slack for a slow machine
+ 
+            try (GameLogReader reader = GameLogReader.open(log)) {
+                assertNotNull(reader.next());
+                RecordedGame last = reader.next();
+                assertNotNull(last);
+                assertEquals(2, last.getMove(0));
+                assertNull(reader.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package connectfour;
+ 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+ 
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+ 
+class MinimaxAITest {
+    // 28 empty cells, a draw the solver needs a few hundred milliseconds to prove
+    private static final String SLOW_ENDGAME = "13002636303306";
+ 
+    @Test
+    void timedSearchDeepensWhenTheSolverGivesUp() {
+        MinimaxAI ai = new MinimaxAI(1);
+        ai.setPlayer(Board.PLAYER_1);
+        Board board = boardFromMoves(SLOW_ENDGAME);
+        assertTrue(Board.ROWS * Board.COLS - SLOW_ENDGAME.length() <= ai.getEndgameThreshold());
+ 
+        Move move = ai.findBestMove(board, Duration.ofMillis(40));
+ 
+        assertNotNull(move);
+        assertTrue(ai.getLastSearchStats().getDepth() > 1,
+                "fell back to depth " + ai.getLastSearchStats().getDepth());
+    }
+ 
+    @Test
+    void fixedDepthSolvesOnlyEndgamesItsDepthReaches() {
+        String moves = SLOW_ENDGAME + "2244";
+        int emptyCells = Board.ROWS * Board.COLS - moves.length();
+        Board board = boardFromMoves(moves);
+ 
+        MinimaxAI shallow = new MinimaxAI(4);
+        shallow.setPlayer(Board.PLAYER_1);
+        assertNotNull(shallow.findBestMove(board));
+        assertEquals(4, shallow.getLastSearchStats().getDepth());
+ 
+        MinimaxAI deep = new MinimaxAI(emptyCells);
+        deep.setPlayer(Board.PLAYER_1);
+        assertNotNull(deep.findBestMove(board));
+        assertEquals(emptyCells, deep.getLastSearchStats().getDepth()); // Solved; a plain search this deep would not finish
+    }
+ 
+    static Board boardFromMoves(String moves) {
+        Board board = new Board();
+        for (int i = 0; i < moves.length(); i++) {
+            board.makeMove(moves.charAt(i) - '0', i % 2 == 0 ? Board.PLAYER_1 : Board.PLAYER_2);
+        }
+        return board;
+    }
+}